@@ -0,0 +1,85 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Bounded single-producer/single-consumer ring of cell updates from a solver thread to
+ * the Swing thread. Each delta is one int, cell * 4 + state, with the state one of the
+ * PackedMaze marks (VISITED or PATH).
+ * The producer blocks while the ring is full, so a solver never runs further ahead of the
+ * animation than the ring's capacity. Closing the ring from the consumer side cancels
+ * the producer: its next put returns false.
+ */
+public class CellDeltaRing {
+    private final int[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Next delta to read
+    private final AtomicLong tail = new AtomicLong(); // Next free slot
+    private volatile Thread waiter;                    // Producer parked on a full ring
+    private volatile boolean closed, finished;
+
+    public CellDeltaRing(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new int[slots];
+        mask = slots - 1;
+    }
+
+    public static int delta(int cell, int state) {
+        return cell << 2 | state;
+    }
+
+    public static int cellOf(int delta) {
+        return delta >>> 2;
+    }
+
+    public static int stateOf(int delta) {
+        return delta & 3;
+    }
+
+    // Producer side: false once the ring has been closed
+    public boolean put(int delta) {
+        long t = tail.get();
+        while (t - head.getAcquire() > mask) {
+            if (closed) return false;
+            waiter = Thread.currentThread();
+            // Re-check after publishing the waiter so a concurrent drain can't be missed
+            if (t - head.getAcquire() > mask && !closed) LockSupport.parkNanos(this, 1_000_000);
+            waiter = null;
+        }
+        if (closed) return false;
+        ring[(int) (t & mask)] = delta;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    // Producer side: no more deltas will follow
+    public void finish() {
+        finished = true;
+    }
+
+    // Consumer side: copies up to out.length deltas; returns how many
+    public int drain(int[] out) {
+        long h = head.get();
+        int n = (int) Math.min(out.length, tail.getAcquire() - h);
+        for (int k = 0; k < n; k++) out[k] = ring[(int) (h + k & mask)];
+        head.setRelease(h + n);
+        Thread w = waiter;
+        if (w != null) LockSupport.unpark(w);
+        return n;
+    }
+
+    // Consumer side: true once the producer has finished and every delta has been drained
+    public boolean isDrained() {
+        return finished && head.get() == tail.getAcquire();
+    }
+
+    // Consumer side: stops the producer, dropping anything still queued
+    public void close() {
+        closed = true;
+        Thread w = waiter;
+        if (w != null) LockSupport.unpark(w);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,147 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/*
+ * Eller's algorithm: builds a perfect maze one row of rooms at a time, keeping only the
+ * set membership of the current row. Memory is O(width) whatever the height, so a maze
+ * can be streamed straight to disk as it is generated.
+ *
+ * Each row of rooms emits two maze rows to a RowSink: the rooms with the passages between
+ * them, then the wall row below with the passages down. Rows are bitsets with 1 = wall.
+ *
+ * File format written by writeTo(): "MAZ1", int rows, int cols, then each row packed
+ * 8 cells per byte, least significant bit first.
+ */
+public class EllerMazeGenerator {
+    static final int MAGIC = 0x4D415A31; // "MAZ1"
+
+    public interface RowSink {
+        void row(int mazeRow, long[] walls) throws IOException;
+    }
+
+    private final int cols, roomCols;
+    private final SplittableRandom rand;
+
+    public EllerMazeGenerator(int cols, long seed) {
+        if (cols < 1) throw new IllegalArgumentException("cols must be >= 1");
+        this.cols = cols;
+        this.roomCols = (cols + 1) / 2;
+        this.rand = new SplittableRandom(seed);
+    }
+
+    // Generates `rows` maze rows into the sink (UncheckedIOException wraps sink failures)
+    public void generate(int rows, RowSink sink) {
+        int roomRows = (rows + 1) / 2;
+        int labels = 2 * roomCols;
+        int[] set = new int[roomCols];       // Set label of each room in the current row
+        int[] parent = new int[labels];      // Union-find over labels, reset every row
+        int[] remaining = new int[labels];   // Rooms of a set not yet considered for a way down
+        boolean[] hasDown = new boolean[labels];
+        boolean[] used = new boolean[labels];
+        boolean[] down = new boolean[roomCols];
+        long[] roomRow = new long[(cols + 63) >>> 6];
+        long[] wallRow = new long[roomRow.length];
+        for (int c = 0; c < roomCols; c++) set[c] = c;
+
+        try {
+            for (int rr = 0; rr < roomRows; rr++) {
+                boolean lastRow = rr == roomRows - 1;
+                for (int l = 0; l < labels; l++) parent[l] = l;
+                fillWalls(roomRow);
+                fillWalls(wallRow);
+                for (int c = 0; c < roomCols; c++) clear(roomRow, 2 * c);
+
+                // Join neighbours in different sets; the last row joins all of them
+                for (int c = 0; c + 1 < roomCols; c++) {
+                    int a = MazeGenerator.find(parent, set[c]), b = MazeGenerator.find(parent, set[c + 1]);
+                    if (a != b && (lastRow || rand.nextBoolean())) {
+                        parent[b] = a;
+                        clear(roomRow, 2 * c + 1);
+                    }
+                }
+                for (int c = 0; c < roomCols; c++) set[c] = MazeGenerator.find(parent, set[c]);
+                sink.row(2 * rr, roomRow);
+                if (lastRow) break;
+
+                // Every set continues down through at least one room
+                for (int c = 0; c < roomCols; c++) {
+                    remaining[set[c]]++;
+                    hasDown[set[c]] = false;
+                }
+                for (int c = 0; c < roomCols; c++) {
+                    int s = set[c];
+                    remaining[s]--;
+                    down[c] = rand.nextBoolean() || (remaining[s] == 0 && !hasDown[s]);
+                    if (down[c]) {
+                        hasDown[s] = true;
+                        clear(wallRow, 2 * c);
+                    }
+                }
+                if (2 * rr + 1 < rows) sink.row(2 * rr + 1, wallRow);
+
+                // Rooms without a way down start new sets in the next row
+                java.util.Arrays.fill(used, false);
+                for (int c = 0; c < roomCols; c++) if (down[c]) used[set[c]] = true;
+                int fresh = 0;
+                for (int c = 0; c < roomCols; c++) {
+                    if (down[c]) continue;
+                    while (used[fresh]) fresh++;
+                    used[fresh] = true;
+                    set[c] = fresh;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Streams a rows x cols maze to a file
+    public static void writeTo(Path file, int rows, int cols, long seed) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            byte[] packed = new byte[(cols + 7) >>> 3];
+            try {
+                new EllerMazeGenerator(cols, seed).generate(rows, (mazeRow, walls) -> {
+                    for (int b = 0; b < packed.length; b++) packed[b] = (byte) (walls[b >>> 3] >>> ((b & 7) << 3));
+                    out.write(packed);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            // A maze with an even number of rows ends in a solid wall row
+            if (rows % 2 == 0) {
+                java.util.Arrays.fill(packed, (byte) -1);
+                out.write(packed);
+            }
+        }
+    }
+
+    // Loads a maze written by writeTo()
+    public static PackedMaze readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a maze file: " + file);
+            int rows = in.readInt(), cols = in.readInt();
+            PackedMaze maze = new PackedMaze(rows, cols);
+            byte[] packed = new byte[(cols + 7) >>> 3];
+            for (int r = 0; r < rows; r++) {
+                in.readFully(packed);
+                for (int c = 0; c < cols; c++) {
+                    if ((packed[c >>> 3] >>> (c & 7) & 1) == 0) maze.setWall(maze.index(r, c), false);
+                }
+            }
+            return maze;
+        }
+    }
+
+    private static void fillWalls(long[] row) {
+        java.util.Arrays.fill(row, -1L);
+    }
+
+    private static void clear(long[] row, int col) {
+        row[col >>> 6] &= ~(1L << col);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Read-only copy of a maze's walls, one bit per cell.
+ * Nothing can be marked or changed, so any number of threads can search it at once.
+ * Visited and path marks always read as false; the setters throw.
+ */
+public final class FrozenMaze implements Maze {
+    private final int rows, cols;
+    private final long[] walls;
+
+    public FrozenMaze(Maze maze) {
+        rows = maze.rows();
+        cols = maze.cols();
+        walls = new long[(maze.cells() + 63) >>> 6];
+        for (int cell = 0; cell < maze.cells(); cell++) {
+            if (maze.isWall(cell)) walls[cell >>> 6] |= 1L << cell;
+        }
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public boolean isWall(int cell) {
+        return (walls[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    @Override
+    public void setWall(int cell, boolean wall) {
+        throw new UnsupportedOperationException("maze is frozen");
+    }
+
+    @Override
+    public boolean isVisited(int cell) {
+        return false;
+    }
+
+    @Override
+    public void setVisited(int cell, boolean visited) {
+        throw new UnsupportedOperationException("maze is frozen");
+    }
+
+    @Override
+    public boolean isPath(int cell) {
+        return false;
+    }
+
+    @Override
+    public void setPath(int cell, boolean path) {
+        throw new UnsupportedOperationException("maze is frozen");
+    }
+
+    @Override
+    public void resetMarks() {
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Binary min-heap of cell indices keyed by long priorities, with decrease-key.
+ * Positions are tracked in an int array indexed by cell, so every operation is
+ * O(log n) with no allocation after construction.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;     // Cells in heap order
+    private final int[] position; // Heap slot of each cell, or -1
+    private final long[] key;     // Priority of each cell while queued
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new long[capacity];
+        java.util.Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int cell) {
+        return position[cell] >= 0;
+    }
+
+    // Adds the cell, or lowers its key if it is queued with a higher one
+    public void push(int cell, long priority) {
+        int i = position[cell];
+        if (i < 0) {
+            i = size++;
+            heap[i] = cell;
+            position[cell] = i;
+        } else if (priority >= key[cell]) {
+            return;
+        }
+        key[cell] = priority;
+        siftUp(i);
+    }
+
+    public int pop() {
+        int top = heap[0];
+        position[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    // Empties the heap in O(size)
+    public void clear() {
+        for (int i = 0; i < size; i++) position[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        long k = key[cell];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (key[p] <= k) break;
+            heap[i] = p;
+            position[p] = i;
+            i = parent;
+        }
+        heap[i] = cell;
+        position[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        long k = key[cell];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && key[heap[right]] < key[c]) {
+                child = right;
+                c = heap[child];
+            }
+            if (k <= key[c]) break;
+            heap[i] = c;
+            position[c] = i;
+            i = child;
+        }
+        heap[i] = cell;
+        position[cell] = i;
+    }
+}
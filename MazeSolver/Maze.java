@@ -0,0 +1,58 @@
+/*
+ * Grid maze addressed by cell index (row * cols + col).
+ * Each cell is a wall or open, and open cells can be marked visited or on the path.
+ * Neighbour iteration fills a caller-owned array, so solvers can walk the maze
+ * without allocating anything per step.
+ */
+public interface Maze {
+    int rows();
+
+    int cols();
+
+    default int cells() {
+        return rows() * cols();
+    }
+
+    default int index(int row, int col) {
+        return row * cols() + col;
+    }
+
+    default int row(int cell) {
+        return cell / cols();
+    }
+
+    default int col(int cell) {
+        return cell % cols();
+    }
+
+    default boolean inBounds(int row, int col) {
+        return row >= 0 && col >= 0 && row < rows() && col < cols();
+    }
+
+    boolean isWall(int cell);
+
+    void setWall(int cell, boolean wall);
+
+    boolean isVisited(int cell);
+
+    void setVisited(int cell, boolean visited);
+
+    boolean isPath(int cell);
+
+    void setPath(int cell, boolean path);
+
+    // Clears every visited and path mark, leaving the walls
+    void resetMarks();
+
+    // Writes the in-bounds neighbours of a cell (right, down, left, up) into out; returns how many
+    default int neighbors(int cell, int[] out) {
+        int cols = cols();
+        int r = cell / cols, c = cell - r * cols;
+        int n = 0;
+        if (c + 1 < cols) out[n++] = cell + 1;
+        if (r + 1 < rows()) out[n++] = cell + cols;
+        if (c > 0) out[n++] = cell - 1;
+        if (r > 0) out[n++] = cell - cols;
+        return n;
+    }
+}
@@ -1,44 +1,196 @@
 import java.util.*;
 
+/*
+ * Generates perfect mazes on a Maze grid. Rooms sit on even (row, col) cells and the odd
+ * cells between them are the walls that get carved away.
+ * Every algorithm is iterative with primitive working arrays, so maze size is bounded
+ * by memory rather than by the thread stack:
+ *  - DFS: recursive backtracker with an explicit int stack (long, winding corridors)
+ *  - WILSON: loop-erased random walks (uniform spanning tree, no bias)
+ *  - KRUSKAL: shuffled walls joined through a union-find (many short dead ends)
+ *  - ELLER: row by row with O(width) state, see EllerMazeGenerator
+ */
 public class MazeGenerator {
+    public enum Algorithm { DFS, WILSON, KRUSKAL, ELLER }
+
     private final int rows, cols;
-    private final Node[][] grid;
-    private final Random rand = new Random();
+    private final int roomRows, roomCols;
+    private final long seed;
+    private final Maze grid;
+    private final SplittableRandom rand;
+    private final int[] scratch = new int[4];
 
     public MazeGenerator(int rows, int cols) {
+        this(rows, cols, new Random().nextLong());
+    }
+
+    public MazeGenerator(int rows, int cols, long seed) {
         this.rows = rows;
         this.cols = cols;
-        grid = new Node[rows][cols];
+        this.roomRows = (rows + 1) / 2;
+        this.roomCols = (cols + 1) / 2;
+        this.seed = seed;
+        this.rand = new SplittableRandom(seed);
+        grid = new PackedMaze(rows, cols); // Every cell starts as a wall
+    }
 
-        for (int i = 0; i < rows; i++)
-            for (int j = 0; j < cols; j++)
-                grid[i][j] = new Node(i, j);
+    public Maze generateMaze() {
+        return generateMaze(Algorithm.DFS);
     }
 
-    public Node[][] generateMaze() {
-        dfsGenerate(0, 0);
+    public Maze generateMaze(Algorithm algorithm) {
+        switch (algorithm) {
+            case DFS -> dfsGenerate();
+            case WILSON -> wilsonGenerate();
+            case KRUSKAL -> kruskalGenerate();
+            case ELLER -> new EllerMazeGenerator(cols, seed).generate(rows, (mazeRow, walls) -> {
+                for (int c = 0; c < cols; c++) {
+                    if ((walls[c >>> 6] >>> c & 1) == 0) grid.setWall(grid.index(mazeRow, c), false);
+                }
+            });
+        }
         return grid;
     }
 
-    private void dfsGenerate(int r, int c) {
-        grid[r][c].isWall = false;
-        int[] dr = {0, 1, 0, -1};
-        int[] dc = {1, 0, -1, 0};
-        List<Integer> dirs = Arrays.asList(0, 1, 2, 3);
-        Collections.shuffle(dirs);
+    // Recursive backtracker with an explicit stack of room indices
+    private void dfsGenerate() {
+        int[] stack = new int[roomRows * roomCols];
+        int top = 0;
+        open(0);
+        stack[top++] = 0;
+        while (top > 0) {
+            int room = stack[top - 1];
+            int n = unvisitedNeighbors(room, scratch);
+            if (n == 0) {
+                top--;
+                continue;
+            }
+            int next = scratch[rand.nextInt(n)];
+            carve(room, next);
+            stack[top++] = next;
+        }
+    }
 
-        for (int dir : dirs) {
-            int nr = r + dr[dir] * 2;
-            int nc = c + dc[dir] * 2;
+    // Loop-erased random walks from each room outside the tree until they hit it
+    private void wilsonGenerate() {
+        int rooms = roomRows * roomCols;
+        byte[] exit = new byte[rooms]; // Last direction the walk left each room by
+        open(rand.nextInt(rooms));
+        for (int startRoom = 0; startRoom < rooms; startRoom++) {
+            if (isOpen(startRoom)) continue;
+            int room = startRoom;
+            while (!isOpen(room)) {
+                int dir = randomDirection(room);
+                exit[room] = (byte) dir;
+                room = step(room, dir);
+            }
+            // Retrace the walk; overwritten exits have already erased its loops
+            room = startRoom;
+            while (!isOpen(room)) {
+                int next = step(room, exit[room]);
+                openPassage(room, next);
+                room = next;
+            }
+        }
+    }
 
-            if (inBounds(nr, nc) && grid[nr][nc].isWall) {
-                grid[r + dr[dir]][c + dc[dir]].isWall = false;
-                dfsGenerate(nr, nc);
+    // Walls in random order, each removed if it separates two different trees
+    private void kruskalGenerate() {
+        int rooms = roomRows * roomCols;
+        int[] walls = new int[2 * rooms];
+        int count = 0;
+        for (int room = 0; room < rooms; room++) {
+            if (room % roomCols + 1 < roomCols) walls[count++] = room << 1;       // Wall to the right
+            if (room / roomCols + 1 < roomRows) walls[count++] = room << 1 | 1;   // Wall below
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int t = walls[i];
+            walls[i] = walls[j];
+            walls[j] = t;
+        }
+        int[] parent = new int[rooms];
+        byte[] rank = new byte[rooms];
+        for (int room = 0; room < rooms; room++) parent[room] = room;
+        open(0);
+        for (int k = 0, joined = 0; k < count && joined < rooms - 1; k++) {
+            int a = walls[k] >>> 1;
+            int b = (walls[k] & 1) == 0 ? a + 1 : a + roomCols;
+            int ra = find(parent, a), rb = find(parent, b);
+            if (ra == rb) continue;
+            if (rank[ra] < rank[rb]) {
+                parent[ra] = rb;
+            } else {
+                parent[rb] = ra;
+                if (rank[ra] == rank[rb]) rank[ra]++;
             }
+            carve(a, b);
+            joined++;
+        }
+    }
+
+    // Root of a union-find tree, halving the path on the way
+    static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private int unvisitedNeighbors(int room, int[] out) {
+        int r = room / roomCols, c = room % roomCols;
+        int n = 0;
+        if (c + 1 < roomCols && !isOpen(room + 1)) out[n++] = room + 1;
+        if (r + 1 < roomRows && !isOpen(room + roomCols)) out[n++] = room + roomCols;
+        if (c > 0 && !isOpen(room - 1)) out[n++] = room - 1;
+        if (r > 0 && !isOpen(room - roomCols)) out[n++] = room - roomCols;
+        return n;
+    }
+
+    // Uniformly random direction (0 right, 1 down, 2 left, 3 up) that stays inside the grid
+    private int randomDirection(int room) {
+        int r = room / roomCols, c = room % roomCols;
+        while (true) {
+            int dir = rand.nextInt(4);
+            if (dir == 0 && c + 1 < roomCols) return dir;
+            if (dir == 1 && r + 1 < roomRows) return dir;
+            if (dir == 2 && c > 0) return dir;
+            if (dir == 3 && r > 0) return dir;
         }
     }
 
-    private boolean inBounds(int r, int c) {
-        return r >= 0 && c >= 0 && r < rows && c < cols;
+    private int step(int room, int dir) {
+        return switch (dir) {
+            case 0 -> room + 1;
+            case 1 -> room + roomCols;
+            case 2 -> room - 1;
+            default -> room - roomCols;
+        };
+    }
+
+    private int cellOf(int room) {
+        return grid.index(room / roomCols * 2, room % roomCols * 2);
+    }
+
+    private boolean isOpen(int room) {
+        return !grid.isWall(cellOf(room));
+    }
+
+    private void open(int room) {
+        grid.setWall(cellOf(room), false);
+    }
+
+    // Opens both rooms and the wall cell between them
+    private void carve(int a, int b) {
+        openPassage(a, b);
+        open(b);
+    }
+
+    // Opens room a and the wall cell towards b, leaving b as it is
+    private void openPassage(int a, int b) {
+        int ca = cellOf(a), cb = cellOf(b);
+        grid.setWall(ca, false);
+        grid.setWall(grid.index((grid.row(ca) + grid.row(cb)) / 2, (grid.col(ca) + grid.col(cb)) / 2), false);
     }
 }
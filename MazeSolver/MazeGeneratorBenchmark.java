@@ -0,0 +1,37 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * Cells generated per second for each MazeGenerator algorithm on a square maze, then
+ * Eller's algorithm streaming a tall maze straight to disk in O(width) memory.
+ *
+ * Usage: java MazeGeneratorBenchmark [size] [streamRows] [streamCols]
+ */
+public class MazeGeneratorBenchmark {
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4001;
+        int streamRows = args.length > 1 ? Integer.parseInt(args[1]) : 100_001;
+        int streamCols = args.length > 2 ? Integer.parseInt(args[2]) : 10_001;
+        long cells = (long) size * size;
+
+        System.out.printf("%dx%d maze (%,d cells)%n", size, size, cells);
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            double best = Double.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                new MazeGenerator(size, size, round).generateMaze(algorithm);
+                best = Math.min(best, (System.nanoTime() - start) / 1e9);
+            }
+            System.out.printf("  %-8s %7.2f s  %,15.0f cells/s%n", algorithm, best, cells / best);
+        }
+
+        Path file = Files.createTempFile("maze", ".maz");
+        long start = System.nanoTime();
+        EllerMazeGenerator.writeTo(file, streamRows, streamCols, 1);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long streamed = (long) streamRows * streamCols;
+        System.out.printf("Eller to disk: %dx%d (%,d cells) in %.2f s, %,.0f cells/s, %,d bytes%n",
+            streamRows, streamCols, streamed, seconds, streamed / seconds, Files.size(file));
+        Files.delete(file);
+    }
+}
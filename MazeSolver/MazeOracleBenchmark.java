@@ -0,0 +1,64 @@
+import java.util.SplittableRandom;
+
+/*
+ * Query latency of MazeTreeOracle against breadth-first search on a large perfect maze:
+ * preprocessing time, then distance and path queries between random open cells, with
+ * every oracle distance checked against BFS on the sampled queries.
+ *
+ * Usage: java MazeOracleBenchmark [size] [oracleQueries] [bfsQueries]
+ */
+public class MazeOracleBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4001;
+        int oracleQueries = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int bfsQueries = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Maze maze = new MazeGenerator(size, size, 1).generateMaze();
+        long start = System.nanoTime();
+        MazeTreeOracle oracle = new MazeTreeOracle(maze);
+        System.out.printf("%dx%d maze, oracle built in %.2f s (%,d MB)%n", size, size,
+            (System.nanoTime() - start) / 1e9, 12L * maze.cells() >> 20);
+
+        SplittableRandom random = new SplittableRandom(2);
+        int[] starts = new int[oracleQueries], ends = new int[oracleQueries];
+        for (int q = 0; q < oracleQueries; q++) {
+            starts[q] = MazeSolverBenchmark.randomOpenCell(maze, random);
+            ends[q] = MazeSolverBenchmark.randomOpenCell(maze, random);
+        }
+
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            checksum = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < oracleQueries; q++) checksum += oracle.distance(starts[q], ends[q]);
+            if (round == 1) {
+                System.out.printf("  oracle distance:    %,13.0f ns/query (mean length %,d)%n",
+                    (double) (System.nanoTime() - start) / oracleQueries, checksum / oracleQueries);
+            }
+        }
+
+        int pathQueries = Math.min(oracleQueries, 200);
+        long cells = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < pathQueries; q++) cells += oracle.path(starts[q], ends[q]).length;
+        long nanos = System.nanoTime() - start;
+        System.out.printf("  oracle path:        %,13.0f ns/query, %.1f ns/cell%n", (double) nanos / pathQueries,
+            (double) nanos / cells);
+
+        PathFinder finder = new PathFinder(maze);
+        for (PathFinder.Algorithm algorithm : new PathFinder.Algorithm[] {
+                PathFinder.Algorithm.BFS, PathFinder.Algorithm.BIDIRECTIONAL_BFS}) {
+            finder.solve(algorithm, starts[0], ends[0]); // Warm-up
+            start = System.nanoTime();
+            for (int q = 0; q < bfsQueries; q++) {
+                int length = finder.solve(algorithm, starts[q], ends[q]);
+                if (length != oracle.distance(starts[q], ends[q])) {
+                    throw new IllegalStateException(algorithm + " found " + length + ", oracle "
+                        + oracle.distance(starts[q], ends[q]));
+                }
+            }
+            System.out.printf("  %-19s %,13.0f ns/query%n", algorithm + ":",
+                (double) (System.nanoTime() - start) / bfsQueries);
+        }
+    }
+}
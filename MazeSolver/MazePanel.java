@@ -1,141 +1,162 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.*;
-import java.util.List;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MazePanel extends JPanel {
-    private Node[][] maze;
+    static final int FRAME_MILLIS = 16;       // About 60 frames per second
+    static final int RING_CAPACITY = 1 << 12; // Deltas a solver may run ahead of the animation
+
+    private Maze maze;
     private final int rows, cols, cellSize = 20;
-    private Node start, end;
+    private int start, end; // Cell indices
+    private MazeTreeOracle oracle; // Shortest paths of the current (perfect) maze
+
+    // Solves run here; the panel applies their deltas on the Swing thread
+    private final ExecutorService solver = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "maze-solver");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Timer frameTimer = new Timer(FRAME_MILLIS, e -> animate());
+    private final int[] frame; // Deltas applied per frame
+    private SolveTask solve;
+    private CellDeltaRing deltas;
+
+    private final BufferedImage image; // Every cell as last painted
+    private final Graphics2D canvas;
 
     public MazePanel(int rows, int cols) {
         this.rows = rows;
         this.cols = cols;
+        frame = new int[Math.max(2, rows * cols / 1000)];
+        image = new BufferedImage(cols * cellSize + 1, rows * cellSize + 1, BufferedImage.TYPE_INT_RGB);
+        canvas = image.createGraphics();
         generateNewMaze();
     }
 
     public void generateNewMaze() {
+        cancelSolve();
         MazeGenerator generator = new MazeGenerator(rows, cols);
         maze = generator.generateMaze();
-        start = maze[0][0];
-        end = maze[rows - 1][cols - 1];
-        repaint();
+        start = maze.index(0, 0);
+        end = maze.index(rows - 1, cols - 1);
+        oracle = new MazeTreeOracle(maze);
+        paintAllCells();
     }
 
     public void solveDFS() {
-        resetMaze();
-        Stack<Node> stack = new Stack<>();
-        stack.push(start);
-
-        while (!stack.isEmpty()) {
-            Node current = stack.pop();
-            current.visited = true;
+        startSolve(SolveTask.Method.DFS);
+    }
 
-            if (current == end) break;
+    public void solveBFS() {
+        startSolve(SolveTask.Method.BFS);
+    }
 
-            for (Node neighbor : getNeighbors(current)) {
-                if (!neighbor.visited && !neighbor.isWall) {
-                    neighbor.visited = true;
-                    stack.push(neighbor);
-                }
-            }
+    public void solveAStar() {
+        startSolve(SolveTask.Method.A_STAR);
+    }
 
-            repaint();
-            sleep();
-        }
+    public void solveBidirectionalBFS() {
+        startSolve(SolveTask.Method.BIDIRECTIONAL_BFS);
+    }
 
-        markPathDFS(start);
-        repaint();
+    public void solveJPS() {
+        startSolve(SolveTask.Method.JPS);
     }
 
-    public void solveBFS() {
-        resetMaze();
-        Queue<Node> queue = new LinkedList<>();
-        Map<Node, Node> parent = new HashMap<>();
-        queue.offer(start);
+    // Marks the shortest path straight from the oracle, without searching
+    public void showShortestPath() {
+        cancelSolve();
+        maze.resetMarks();
+        oracle.markPath(maze, start, end);
+        paintAllCells();
+    }
 
-        while (!queue.isEmpty()) {
-            Node current = queue.poll();
-            current.visited = true;
+    // Stops the running solve, leaving what has been drawn so far
+    public void cancelSolve() {
+        if (solve != null) {
+            solve.cancel();
+            solve = null;
+            deltas = null;
+        }
+        frameTimer.stop();
+    }
 
-            if (current == end) break;
+    public boolean isSolving() {
+        return solve != null;
+    }
 
-            for (Node neighbor : getNeighbors(current)) {
-                if (!neighbor.visited && !neighbor.isWall && !parent.containsKey(neighbor)) {
-                    parent.put(neighbor, current);
-                    queue.offer(neighbor);
-                }
-            }
+    private void startSolve(SolveTask.Method method) {
+        cancelSolve();
+        resetMaze();
+        deltas = new CellDeltaRing(RING_CAPACITY);
+        solve = new SolveTask(maze, method, start, end, deltas);
+        solver.execute(solve);
+        frameTimer.start();
+    }
 
-            repaint();
-            sleep();
+    // Applies one frame's worth of deltas and repaints the cells they touched
+    private void animate() {
+        if (deltas == null) {
+            frameTimer.stop();
+            return;
         }
-
-        Node curr = end;
-        while (curr != null && curr != start) {
-            curr.isPath = true;
-            curr = parent.get(curr);
+        int n = deltas.drain(frame);
+        int minRow = rows, maxRow = -1, minCol = cols, maxCol = -1;
+        for (int k = 0; k < n; k++) {
+            int cell = CellDeltaRing.cellOf(frame[k]);
+            if (CellDeltaRing.stateOf(frame[k]) == PackedMaze.PATH) maze.setPath(cell, true);
+            else maze.setVisited(cell, true);
+            paintCell(cell);
+            int r = maze.row(cell), c = maze.col(cell);
+            minRow = Math.min(minRow, r);
+            maxRow = Math.max(maxRow, r);
+            minCol = Math.min(minCol, c);
+            maxCol = Math.max(maxCol, c);
         }
-        repaint();
-    }
-
-    private void resetMaze() {
-        for (Node[] row : maze)
-            for (Node node : row) {
-                node.visited = false;
-                node.isPath = false;
-            }
-    }
-
-    private List<Node> getNeighbors(Node node) {
-        List<Node> neighbors = new ArrayList<>();
-        int[][] dirs = {{0,1},{1,0},{0,-1},{-1,0}};
-        for (int[] dir : dirs) {
-            int nr = node.row + dir[0];
-            int nc = node.col + dir[1];
-            if (inBounds(nr, nc)) neighbors.add(maze[nr][nc]);
+        if (n > 0) {
+            repaint(minCol * cellSize, minRow * cellSize, (maxCol - minCol + 1) * cellSize + 1,
+                (maxRow - minRow + 1) * cellSize + 1);
+        }
+        if (deltas.isDrained()) {
+            solve = null;
+            deltas = null;
+            frameTimer.stop();
         }
-        return neighbors;
     }
 
-    private boolean inBounds(int r, int c) {
-        return r >= 0 && c >= 0 && r < rows && c < cols;
+    private void resetMaze() {
+        maze.resetMarks();
+        paintAllCells();
     }
 
-    private void markPathDFS(Node current) {
-        if (current == null || current.visited == false || current == end) return;
-        current.isPath = true;
-        for (Node neighbor : getNeighbors(current)) {
-            if (neighbor.visited && !neighbor.isPath) {
-                markPathDFS(neighbor);
-                break;
-            }
-        }
+    private void paintAllCells() {
+        for (int cell = 0; cell < maze.cells(); cell++) paintCell(cell);
+        repaint();
     }
 
-    private void sleep() {
-        try { Thread.sleep(10); } catch (InterruptedException e) {}
+    // Draws one cell into the cached image
+    private void paintCell(int cell) {
+        int x = maze.col(cell) * cellSize;
+        int y = maze.row(cell) * cellSize;
+        if (maze.isWall(cell)) canvas.setColor(Color.BLACK);
+        else if (cell == start) canvas.setColor(Color.GREEN);
+        else if (cell == end) canvas.setColor(Color.RED);
+        else if (maze.isPath(cell)) canvas.setColor(Color.YELLOW);
+        else if (maze.isVisited(cell)) canvas.setColor(Color.CYAN);
+        else canvas.setColor(Color.WHITE);
+
+        canvas.fillRect(x, y, cellSize, cellSize);
+        canvas.setColor(Color.GRAY);
+        canvas.drawRect(x, y, cellSize, cellSize);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        for (Node[] row : maze) {
-            for (Node node : row) {
-                int x = node.col * cellSize;
-                int y = node.row * cellSize;
-                if (node.isWall) g.setColor(Color.BLACK);
-                else if (node == start) g.setColor(Color.GREEN);
-                else if (node == end) g.setColor(Color.RED);
-                else if (node.isPath) g.setColor(Color.YELLOW);
-                else if (node.visited) g.setColor(Color.CYAN);
-                else g.setColor(Color.WHITE);
-
-                g.fillRect(x, y, cellSize, cellSize);
-                g.setColor(Color.GRAY);
-                g.drawRect(x, y, cellSize, cellSize);
-            }
-        }
+        g.drawImage(image, 0, 0, null);
     }
 
     @Override
@@ -0,0 +1,69 @@
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/*
+ * Queries per second for MazeQueryService on one maze with a share of its walls removed,
+ * with one worker and then with every core, plus the bytes allocated per query across
+ * all threads and the scratch the workers hold. Every parallel answer is checked against
+ * the single-worker run.
+ *
+ * Usage: java MazeQueryBenchmark [size] [queries] [threads] [algorithm]
+ */
+public class MazeQueryBenchmark {
+    static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1001;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        PathFinder.Algorithm algorithm = args.length > 3 ? PathFinder.Algorithm.valueOf(args[3])
+            : PathFinder.Algorithm.BIDIRECTIONAL_BFS;
+
+        Maze maze = new MazeGenerator(size, size, 1).generateMaze();
+        MazeSolverBenchmark.removeWalls(maze, 0.1, 2);
+        SplittableRandom random = new SplittableRandom(3);
+        int[] starts = new int[queries], ends = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            starts[q] = MazeSolverBenchmark.randomOpenCell(maze, random);
+            ends[q] = MazeSolverBenchmark.randomOpenCell(maze, random);
+        }
+        System.out.printf("%dx%d maze, %,d queries, %s, %d cores%n", size, size, queries, algorithm,
+            Runtime.getRuntime().availableProcessors());
+
+        int[] expected = new int[queries];
+        int[] lengths = new int[queries];
+        for (int workers : threads == 1 ? new int[] {1} : new int[] {1, threads}) {
+            try (MazeQueryService service = new MazeQueryService(maze, workers, algorithm)) {
+                service.shortestPaths(starts, ends, lengths); // Warm-up
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                service.shortestPaths(starts, ends, lengths);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                allocated = allocatedBytes() - allocated;
+                if (workers == 1) System.arraycopy(lengths, 0, expected, 0, queries);
+                else if (!java.util.Arrays.equals(lengths, expected)) throw new IllegalStateException("answers differ");
+                System.out.printf("  %2d worker(s): %,10.0f paths/s  %,8d bytes/query  %.1f scratch bytes/cell%n",
+                    workers, queries / seconds, allocated / queries, (double) service.scratchBytes() / maze.cells());
+            }
+        }
+
+        try (MazeQueryService service = new MazeQueryService(maze, 1)) {
+            long reachable = 0;
+            long start = System.nanoTime();
+            for (int round = 0; round < 1000; round++) {
+                for (int q = 0; q < queries; q++) if (service.reachable(starts[q], ends[q])) reachable++;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  reachability: %,.0f queries/s (%d of %d reachable)%n", 1000.0 * queries / seconds,
+                reachable / 1000, queries);
+        }
+    }
+
+    // Bytes allocated so far by every live thread
+    static long allocatedBytes() {
+        long total = 0;
+        for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) total += Math.max(0, bytes);
+        return total;
+    }
+}
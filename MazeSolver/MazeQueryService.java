@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Answers batches of reachability and shortest-path queries against one maze, in parallel.
+ * The maze is frozen on construction. Reachability is an O(1) lookup in a table of
+ * connected components labelled once up front, which also lets path queries between
+ * different components return -1 without searching.
+ * Each worker owns a length-only PathFinder whose epoch-stamped scratch is reused from query
+ * to query: with BFS that is just stamps and queues, 16 bytes per cell bidirectional. Workers
+ * claim queries in chunks from a shared counter. A batch allocates a handful of objects per
+ * worker and nothing per query.
+ */
+public class MazeQueryService implements AutoCloseable {
+    static final int CHUNK = 16; // Queries a worker claims at a time
+
+    private final FrozenMaze maze;
+    private final int[] component; // Component label per open cell, -1 for walls
+    private final PathFinder.Algorithm algorithm;
+    private final PathFinder[] finders; // One per worker
+    private final ExecutorService pool;
+
+    public MazeQueryService(Maze maze, int threads) {
+        this(maze, threads, PathFinder.Algorithm.BIDIRECTIONAL_BFS);
+    }
+
+    public MazeQueryService(Maze maze, int threads, PathFinder.Algorithm algorithm) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+        this.maze = maze instanceof FrozenMaze ? (FrozenMaze) maze : new FrozenMaze(maze);
+        this.algorithm = algorithm;
+        this.component = labelComponents(this.maze);
+        finders = new PathFinder[threads];
+        for (int w = 0; w < threads; w++) finders[w] = new PathFinder(this.maze, true);
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "maze-query");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public Maze maze() {
+        return maze;
+    }
+
+    public int threads() {
+        return finders.length;
+    }
+
+    // Bytes of search scratch held by all workers, plus the component table
+    public long scratchBytes() {
+        long bytes = 4L * component.length;
+        for (PathFinder finder : finders) bytes += finder.scratchBytes();
+        return bytes;
+    }
+
+    // True if both cells are open and connected
+    public boolean reachable(int from, int to) {
+        return component[from] >= 0 && component[from] == component[to];
+    }
+
+    // Fills lengths[q] with the shortest path length from starts[q] to ends[q], or -1.
+    // Batches from different callers take turns, since they share the workers' scratch.
+    public synchronized void shortestPaths(int[] starts, int[] ends, int[] lengths) throws InterruptedException {
+        int count = starts.length;
+        if (ends.length != count || lengths.length < count) throw new IllegalArgumentException("array lengths differ");
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>(finders.length);
+        for (PathFinder finder : finders) {
+            workers.add(() -> {
+                int first;
+                while ((first = next.getAndAdd(CHUNK)) < count) {
+                    int last = Math.min(count, first + CHUNK);
+                    for (int q = first; q < last; q++) lengths[q] = shortestPath(finder, starts[q], ends[q]);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> done : pool.invokeAll(workers)) {
+            try {
+                done.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("query failed", e.getCause());
+            }
+        }
+    }
+
+    private int shortestPath(PathFinder finder, int from, int to) {
+        if (!reachable(from, to)) return -1;
+        return finder.solve(algorithm, from, to);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Labels every open cell with the index of its connected component
+    static int[] labelComponents(Maze maze) {
+        int[] label = new int[maze.cells()];
+        java.util.Arrays.fill(label, -1);
+        int[] queue = new int[maze.cells()];
+        int[] neighbors = new int[4];
+        int components = 0;
+        for (int seed = 0; seed < maze.cells(); seed++) {
+            if (label[seed] >= 0 || maze.isWall(seed)) continue;
+            int head = 0, tail = 0;
+            label[seed] = components;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int current = queue[head++];
+                int n = maze.neighbors(current, neighbors);
+                for (int k = 0; k < n; k++) {
+                    int next = neighbors[k];
+                    if (label[next] < 0 && !maze.isWall(next)) {
+                        label[next] = components;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            components++;
+        }
+        return label;
+    }
+}
@@ -4,7 +4,7 @@ import javax.swing.*;
 public class MazeSolver {
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
-            JFrame frame = new JFrame("Maze Solver (DFS/BFS)");
+            JFrame frame = new JFrame("Maze Solver");
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             frame.setLayout(new BorderLayout());
 
@@ -14,14 +14,29 @@ public class MazeSolver {
             JPanel controlPanel = new JPanel();
             JButton dfsBtn = new JButton("Solve with DFS");
             JButton bfsBtn = new JButton("Solve with BFS");
+            JButton biBfsBtn = new JButton("Bidirectional BFS");
+            JButton aStarBtn = new JButton("A*");
+            JButton jpsBtn = new JButton("JPS");
+            JButton pathBtn = new JButton("Instant Path");
+            JButton cancelBtn = new JButton("Cancel");
             JButton genBtn = new JButton("Generate New Maze");
 
             dfsBtn.addActionListener(e -> mazePanel.solveDFS());
             bfsBtn.addActionListener(e -> mazePanel.solveBFS());
+            biBfsBtn.addActionListener(e -> mazePanel.solveBidirectionalBFS());
+            aStarBtn.addActionListener(e -> mazePanel.solveAStar());
+            jpsBtn.addActionListener(e -> mazePanel.solveJPS());
+            pathBtn.addActionListener(e -> mazePanel.showShortestPath());
+            cancelBtn.addActionListener(e -> mazePanel.cancelSolve());
             genBtn.addActionListener(e -> mazePanel.generateNewMaze());
 
             controlPanel.add(dfsBtn);
             controlPanel.add(bfsBtn);
+            controlPanel.add(biBfsBtn);
+            controlPanel.add(aStarBtn);
+            controlPanel.add(jpsBtn);
+            controlPanel.add(pathBtn);
+            controlPanel.add(cancelBtn);
             controlPanel.add(genBtn);
             frame.add(controlPanel, BorderLayout.SOUTH);
 
@@ -37,7 +52,11 @@ public class MazeSolver {
  * Users can:
  *  - Solve the maze using DFS (Depth-First Search)
  *  - Solve the maze using BFS (Breadth-First Search)
+ *  - Solve the maze using bidirectional BFS, A* or Jump Point Search
+ *  - Show the shortest path instantly from a precomputed tree oracle
+ *  - Cancel a solve while it is being animated
  *  - Generate a new random maze
  * 
  * The application runs on the Swing event dispatch thread to ensure thread-safe UI operations.
+ * Solving happens on a background thread; the panel animates its progress with a Swing timer.
  */
@@ -0,0 +1,145 @@
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/*
+ * Compares the PathFinder algorithms with the breadth-first search MazePanel runs, on the
+ * same random start/end pairs over three kinds of grid:
+ *  - a perfect maze, where every route is a one-cell corridor,
+ *  - the same maze with a share of its walls knocked out, leaving loops and small rooms,
+ *  - an open field with scattered obstacles.
+ * Reports nodes expanded, cells scanned, wall time and bytes allocated per query, and
+ * checks that every algorithm finds paths of the same length.
+ *
+ * Usage: java MazeSolverBenchmark [size] [queries]
+ */
+public class MazeSolverBenchmark {
+    static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2001;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Maze perfect = new MazeGenerator(size, size, 1).generateMaze();
+        Maze braided = new MazeGenerator(size, size, 1).generateMaze();
+        removeWalls(braided, 0.3, 2);
+        Maze field = openField(size, size, 0.2, 3);
+
+        run("Perfect maze", perfect, queries);
+        run("Maze with 30% of walls removed", braided, queries);
+        run("Open field, 20% obstacles", field, queries);
+    }
+
+    // Opens each wall cell with the given probability
+    static void removeWalls(Maze maze, double share, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int cell = 0; cell < maze.cells(); cell++) {
+            if (maze.isWall(cell) && random.nextDouble() < share) maze.setWall(cell, false);
+        }
+    }
+
+    // Grid with each cell a wall with the given probability
+    static Maze openField(int rows, int cols, double obstacles, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Maze maze = new PackedMaze(rows, cols);
+        for (int cell = 0; cell < maze.cells(); cell++) maze.setWall(cell, random.nextDouble() < obstacles);
+        return maze;
+    }
+
+    static void run(String name, Maze maze, int queries) {
+        // Random open start and end cells, the same for every algorithm
+        SplittableRandom random = new SplittableRandom(4);
+        int[] starts = new int[queries], ends = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            starts[q] = randomOpenCell(maze, random);
+            ends[q] = randomOpenCell(maze, random);
+        }
+
+        System.out.printf("%s, %dx%d, %d queries%n", name, maze.rows(), maze.cols(), queries);
+        System.out.printf("  %-18s %14s %14s %10s %14s%n", "", "expanded/query", "scanned/query", "ms/query",
+            "bytes/query");
+
+        int[] lengths = new int[queries];
+        for (int round = 0; round < 2; round++) {
+            // Round 0 warms up and records lengths; round 1 is measured
+            long allocated = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long expanded = 0;
+            for (int q = 0; q < queries; q++) {
+                int length = panelBfs(maze, starts[q], ends[q]);
+                expanded += visitedCount;
+                lengths[q] = length;
+            }
+            long nanos = System.nanoTime() - start;
+            allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+            if (round == 1) report("MazePanel BFS", queries, expanded, expanded * 4, nanos, allocated);
+        }
+
+        PathFinder finder = new PathFinder(maze);
+        for (PathFinder.Algorithm algorithm : PathFinder.Algorithm.values()) {
+            for (int round = 0; round < 2; round++) {
+                long allocated = THREADS.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                long expanded = 0, scanned = 0;
+                for (int q = 0; q < queries; q++) {
+                    int length = finder.solve(algorithm, starts[q], ends[q]);
+                    expanded += finder.expanded();
+                    scanned += finder.scanned();
+                    if (length != lengths[q]) {
+                        throw new IllegalStateException(algorithm + " found length " + length + ", BFS " + lengths[q]);
+                    }
+                }
+                long nanos = System.nanoTime() - start;
+                allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+                if (round == 1) report(algorithm.toString(), queries, expanded, scanned, nanos, allocated);
+            }
+        }
+        System.out.println();
+    }
+
+    static void report(String name, int queries, long expanded, long scanned, long nanos, long allocated) {
+        System.out.printf("  %-18s %,14d %,14d %10.2f %,14d%n", name, expanded / queries, scanned / queries,
+            nanos / 1e6 / queries, allocated / queries);
+    }
+
+    static int randomOpenCell(Maze maze, SplittableRandom random) {
+        while (true) {
+            int cell = random.nextInt(maze.cells());
+            if (!maze.isWall(cell)) return cell;
+        }
+    }
+
+    static int visitedCount;
+
+    // MazePanel.solveBFS without the painting: fresh queue and parent arrays, marks in the maze
+    static int panelBfs(Maze maze, int start, int end) {
+        maze.resetMarks();
+        int[] neighbors = new int[4];
+        int[] queue = new int[maze.cells()];
+        int[] parent = new int[maze.cells()];
+        java.util.Arrays.fill(parent, -1);
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        parent[start] = start;
+        visitedCount = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            maze.setVisited(current, true);
+            visitedCount++;
+            if (current == end) break;
+            int n = maze.neighbors(current, neighbors);
+            for (int k = 0; k < n; k++) {
+                int neighbor = neighbors[k];
+                if (!maze.isVisited(neighbor) && !maze.isWall(neighbor) && parent[neighbor] < 0) {
+                    parent[neighbor] = current;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        if (parent[end] < 0) return -1;
+        int length = 0;
+        for (int cell = end; cell != start; cell = parent[cell]) length++;
+        return length;
+    }
+}
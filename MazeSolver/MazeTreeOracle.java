@@ -0,0 +1,121 @@
+/*
+ * Distance oracle for perfect mazes, whose open cells form a tree (a forest if some parts
+ * are walled off). Preprocessing roots each tree with one BFS and splits it into heavy
+ * paths: every cell's heavy child is the one with the largest subtree, and chains of heavy
+ * children share a head. Climbing from any cell to the root crosses at most log2(n) chains,
+ * so the lowest common ancestor of two cells, and with it their distance
+ * depth(u) + depth(v) - 2 * depth(lca), takes O(log n) with three ints per cell.
+ * Paths come out by walking parent links up to the ancestor, in O(path length).
+ *
+ * Euler tour plus sparse table or binary lifting would need 20+ ints per cell on a
+ * 4k x 4k maze; heavy-light decomposition keeps the whole index at 12 bytes per cell.
+ */
+public class MazeTreeOracle {
+    private final int[] parent; // -1 for tree roots and walls
+    private final int[] depth;
+    private final int[] head;   // Top cell of each cell's heavy path
+    private final Maze maze;
+
+    // Throws IllegalArgumentException if the open cells contain a loop
+    public MazeTreeOracle(Maze maze) {
+        this.maze = maze;
+        int cells = maze.cells();
+        parent = new int[cells];
+        depth = new int[cells];
+        head = new int[cells];
+        java.util.Arrays.fill(parent, -2); // -2 until reached
+
+        // BFS order doubles as a top-down order of every tree
+        int[] order = new int[cells];
+        int[] neighbors = new int[4];
+        int count = 0;
+        long edges = 0;
+        for (int root = 0; root < cells; root++) {
+            if (parent[root] != -2 || maze.isWall(root)) continue;
+            parent[root] = -1;
+            int first = count;
+            order[count++] = root;
+            for (int k = first; k < count; k++) {
+                int current = order[k];
+                int n = maze.neighbors(current, neighbors);
+                for (int j = 0; j < n; j++) {
+                    int next = neighbors[j];
+                    if (maze.isWall(next)) continue;
+                    edges++;
+                    if (parent[next] == -2) {
+                        parent[next] = current;
+                        depth[next] = depth[current] + 1;
+                        order[count++] = next;
+                    }
+                }
+            }
+        }
+        int trees = 0;
+        for (int k = 0; k < count; k++) if (parent[order[k]] == -1) trees++;
+        // Each open edge was seen from both ends; a forest has exactly cells - trees edges
+        if (edges / 2 != count - trees) throw new IllegalArgumentException("maze has loops; not a tree");
+
+        // Subtree sizes bottom-up, picking each cell's heaviest child on the way
+        int[] size = head; // Reused as scratch until the heads are filled in below
+        int[] heavy = new int[cells];
+        java.util.Arrays.fill(heavy, -1);
+        for (int k = count - 1; k >= 0; k--) size[order[k]] = 1;
+        for (int k = count - 1; k > 0; k--) {
+            int cell = order[k], p = parent[cell];
+            if (p < 0) continue;
+            size[p] += size[cell];
+            if (heavy[p] < 0 || size[cell] > size[heavy[p]]) heavy[p] = cell;
+        }
+        for (int k = 0; k < count; k++) {
+            int cell = order[k], p = parent[cell];
+            head[cell] = p >= 0 && heavy[p] == cell ? head[p] : cell;
+        }
+        for (int cell = 0; cell < cells; cell++) if (parent[cell] == -2) parent[cell] = -1;
+    }
+
+    // Lowest common ancestor of two open cells, or -1 if they are not connected
+    public int ancestor(int u, int v) {
+        if (maze.isWall(u) || maze.isWall(v)) return -1;
+        while (head[u] != head[v]) {
+            int hu = head[u], hv = head[v];
+            if (depth[hu] < depth[hv]) {
+                int t = u;
+                u = v;
+                v = t;
+                hu = hv;
+            }
+            // Both chains start at a root: two different trees
+            if (parent[hu] < 0) return -1;
+            u = parent[hu];
+        }
+        return depth[u] <= depth[v] ? u : v;
+    }
+
+    // Steps on the path between two cells, or -1 if there is none
+    public int distance(int from, int to) {
+        int lca = ancestor(from, to);
+        return lca < 0 ? -1 : depth[from] + depth[to] - 2 * depth[lca];
+    }
+
+    public boolean connected(int from, int to) {
+        return ancestor(from, to) >= 0;
+    }
+
+    // Cells on the path from one cell to the other, or an empty array if there is none
+    public int[] path(int from, int to) {
+        int lca = ancestor(from, to);
+        if (lca < 0) return new int[0];
+        int up = depth[from] - depth[lca];
+        int[] path = new int[up + depth[to] - depth[lca] + 1];
+        int k = 0;
+        for (int cell = from; cell != lca; cell = parent[cell]) path[k++] = cell;
+        path[k] = lca;
+        k = path.length;
+        for (int cell = to; cell != lca; cell = parent[cell]) path[--k] = cell;
+        return path;
+    }
+
+    public void markPath(Maze target, int from, int to) {
+        for (int cell : path(from, to)) target.setPath(cell, true);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Maze stored as 2 bits per cell in a long[]: 32 cells per word.
+ * The four states are OPEN, VISITED, PATH and WALL, so a 10k x 10k maze takes 25 MB
+ * instead of one object per cell. Not thread-safe; one thread updates the marks at a time.
+ */
+public class PackedMaze implements Maze {
+    public static final int OPEN = 0, VISITED = 1, PATH = 2, WALL = 3;
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private final int rows, cols;
+    private final long[] bits;
+
+    // Starts with every cell a wall
+    public PackedMaze(int rows, int cols) {
+        if (rows < 1 || cols < 1) throw new IllegalArgumentException("maze must be at least 1x1");
+        if ((long) rows * cols > Integer.MAX_VALUE) throw new IllegalArgumentException("maze too large");
+        this.rows = rows;
+        this.cols = cols;
+        bits = new long[(int) (((long) rows * cols + 31) >>> 5)];
+        java.util.Arrays.fill(bits, -1L);
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    public int state(int cell) {
+        return (int) (bits[cell >>> 5] >>> ((cell & 31) << 1)) & 3;
+    }
+
+    public void setState(int cell, int state) {
+        int shift = (cell & 31) << 1;
+        int w = cell >>> 5;
+        bits[w] = (bits[w] & ~(3L << shift)) | ((long) state << shift);
+    }
+
+    @Override
+    public boolean isWall(int cell) {
+        return state(cell) == WALL;
+    }
+
+    @Override
+    public void setWall(int cell, boolean wall) {
+        setState(cell, wall ? WALL : OPEN);
+    }
+
+    @Override
+    public boolean isVisited(int cell) {
+        int s = state(cell);
+        return s == VISITED || s == PATH;
+    }
+
+    @Override
+    public void setVisited(int cell, boolean visited) {
+        int s = state(cell);
+        if (s == WALL) return;
+        if (visited) {
+            if (s == OPEN) setState(cell, VISITED);
+        } else {
+            setState(cell, OPEN);
+        }
+    }
+
+    @Override
+    public boolean isPath(int cell) {
+        return state(cell) == PATH;
+    }
+
+    @Override
+    public void setPath(int cell, boolean path) {
+        int s = state(cell);
+        if (s == WALL) return;
+        setState(cell, path ? PATH : s == PATH ? VISITED : s);
+    }
+
+    // Word at a time: keeps the cells whose two bits are both set (walls) and zeroes the rest
+    @Override
+    public void resetMarks() {
+        for (int w = 0; w < bits.length; w++) {
+            long walls = bits[w] & (bits[w] >>> 1) & LOW_BITS;
+            bits[w] = walls | (walls << 1);
+        }
+    }
+
+    // Bytes used by the cell array
+    public long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+}
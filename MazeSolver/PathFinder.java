@@ -0,0 +1,453 @@
+/*
+ * Shortest-path search over a Maze with four-way moves of unit cost.
+ *  - BFS: plain breadth-first search from the start.
+ *  - BIDIRECTIONAL_BFS: grows one BFS level at a time from whichever end has the smaller
+ *    frontier and stops once the two searches meet.
+ *  - A_STAR: best-first on g + Manhattan distance, using an IndexedMinHeap with ties
+ *    broken towards the goal.
+ *  - JPS: A* over jump points only. Straight runs are scanned without queuing every cell,
+ *    which pays off on open areas; in one-cell corridors it behaves like A*.
+ *
+ * All four return the same shortest length. Scratch arrays are allocated on first use and
+ * kept between searches. A cell counts as reached only if its stamp equals the current
+ * search's epoch, so starting a search is O(1) and repeated queries on the same maze
+ * allocate nothing and cost time proportional to the cells they explore. The maze is only
+ * read, so several PathFinders can search one maze from different threads.
+ *
+ * A full finder keeps parents, distances and the reached cells for path() and the animation:
+ * 20 bytes per cell for BFS, 36 for bidirectional BFS and 32 for A* and JPS. A length-only
+ * finder answers with the length alone. Its BFS searches count levels instead of storing
+ * distances and keep just the epoch stamps and queues (8 bytes per cell, 16 bidirectional);
+ * A* drops parents and JPS keeps them, since it prunes by the direction of arrival.
+ */
+public class PathFinder {
+    public enum Algorithm { BFS, BIDIRECTIONAL_BFS, A_STAR, JPS }
+
+    private final Maze maze;
+    private final int rows, cols, cells;
+    private final boolean lengthOnly; // No parents or reached cells unless JPS needs them
+    private final int[] neighbors = new int[4];
+
+    private int[] seen, parent, dist; // Per cell; parent and dist are valid where seen == epoch
+    private int[] touched;            // Reached cells in order, full finders only
+    private int[] queue;
+    private int[] seenBack, parentBack, distBack, queueBack; // Search from the end, bidirectional only
+    private IndexedMinHeap open;
+    private int epoch, touchedCount;
+
+    private Algorithm algorithm;
+    private int start, end, length = -1, meet = -1;
+    private long expanded, scanned;
+
+    public PathFinder(Maze maze) {
+        this(maze, false);
+    }
+
+    // A length-only finder returns lengths from solve() but keeps no path or reached cells
+    public PathFinder(Maze maze, boolean lengthOnly) {
+        this.maze = maze;
+        this.rows = maze.rows();
+        this.cols = maze.cols();
+        this.cells = maze.cells();
+        this.lengthOnly = lengthOnly;
+    }
+
+    // Searches from start to end; returns the number of steps on the shortest path, or -1
+    public int solve(Algorithm algorithm, int start, int end) {
+        reset();
+        this.algorithm = algorithm;
+        this.start = start;
+        this.end = end;
+        meet = -1;
+        expanded = 0;
+        scanned = 0;
+        if (maze.isWall(start) || maze.isWall(end)) return length = -1;
+        switch (algorithm) {
+            case BFS: length = lengthOnly ? bfsLevels() : bfs(); break;
+            case BIDIRECTIONAL_BFS: length = lengthOnly ? bidirectionalLevels() : bidirectionalBfs(); break;
+            case A_STAR: length = aStar(); break;
+            default: length = jps(); break;
+        }
+        return length;
+    }
+
+    // Cells taken off the frontier by the last search
+    public long expanded() {
+        return expanded;
+    }
+
+    // Cells examined by the last search, including those JPS scanned while jumping
+    public long scanned() {
+        return scanned;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    // Bytes of scratch allocated so far
+    public long scratchBytes() {
+        long ints = 0;
+        for (int[] a : new int[][] {seen, parent, dist, touched, queue, seenBack, parentBack, distBack, queueBack}) {
+            if (a != null) ints += a.length;
+        }
+        return 4 * ints + (open == null ? 0 : 16L * cells);
+    }
+
+    // Cells the last search reached, in the order it reached them (jump points only, for JPS)
+    public int reachedCount() {
+        return touchedCount;
+    }
+
+    public int reached(int k) {
+        return touched[k];
+    }
+
+    // Cells of the last shortest path from start to end, or an empty array if none was found
+    public int[] path() {
+        if (lengthOnly) throw new IllegalStateException("length-only PathFinder keeps no paths");
+        if (length < 0) return new int[0];
+        int[] path = new int[length + 1];
+        if (algorithm == Algorithm.BIDIRECTIONAL_BFS) {
+            int k = trace(parent, meet, start, path, dist[meet]);
+            path[k] = meet;
+            int cell = meet;
+            while (cell != end) {
+                cell = parentBack[cell];
+                path[++k] = cell;
+            }
+        } else {
+            trace(parent, end, start, path, length);
+        }
+        return path;
+    }
+
+    public void markPath(Maze target) {
+        for (int cell : path()) target.setPath(cell, true);
+    }
+
+    // Marks every cell the last search reached
+    public void markVisited(Maze target) {
+        for (int k = 0; k < touchedCount; k++) target.setVisited(touched[k], true);
+    }
+
+    // Fills path[0..at] walking parent links back from cell; returns the slot of cell
+    private int trace(int[] links, int cell, int to, int[] path, int at) {
+        int k = at;
+        path[k] = cell;
+        while (cell != to) {
+            int p = links[cell];
+            // Jump points are joined by straight runs; other parents are one step away
+            while (cell != p) {
+                cell = stepToward(cell, p);
+                path[--k] = cell;
+            }
+        }
+        return at;
+    }
+
+    private int stepToward(int cell, int target) {
+        int r = cell / cols, tr = target / cols;
+        if (r == tr) return target > cell ? cell + 1 : cell - 1;
+        return tr > r ? cell + cols : cell - cols;
+    }
+
+    private int bfs() {
+        ensure(false, false);
+        int head = 0, tail = 0;
+        reach(start, start, 0);
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            expanded++;
+            if (current == end) return dist[current];
+            int n = maze.neighbors(current, neighbors);
+            for (int k = 0; k < n; k++) {
+                int next = neighbors[k];
+                scanned++;
+                if (seen[next] != epoch && !maze.isWall(next)) {
+                    reach(next, current, dist[current] + 1);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int bidirectionalBfs() {
+        ensure(true, false);
+        reach(start, start, 0);
+        if (start == end) {
+            meet = start;
+            return 0;
+        }
+        seenBack[end] = epoch;
+        parentBack[end] = end;
+        distBack[end] = 0;
+        touched[touchedCount++] = end;
+        queue[0] = start;
+        queueBack[0] = end;
+        int head = 0, tail = 1, headBack = 0, tailBack = 1;
+        int best = Integer.MAX_VALUE;
+
+        while (head < tail && headBack < tailBack) {
+            // Expands one whole level of the smaller frontier
+            boolean forward = tail - head <= tailBack - headBack;
+            int[] q = forward ? queue : queueBack;
+            int[] mark = forward ? seen : seenBack, otherMark = forward ? seenBack : seen;
+            int[] links = forward ? parent : parentBack;
+            int[] d = forward ? dist : distBack, otherDist = forward ? distBack : dist;
+            int h = forward ? head : headBack, t = forward ? tail : tailBack;
+            int levelEnd = t;
+            while (h < levelEnd) {
+                int current = q[h++];
+                expanded++;
+                int n = maze.neighbors(current, neighbors);
+                for (int k = 0; k < n; k++) {
+                    int next = neighbors[k];
+                    scanned++;
+                    if (mark[next] == epoch || maze.isWall(next)) continue;
+                    mark[next] = epoch;
+                    links[next] = current;
+                    d[next] = d[current] + 1;
+                    if (otherMark[next] == epoch) {
+                        if (d[next] + otherDist[next] < best) {
+                            best = d[next] + otherDist[next];
+                            meet = next;
+                        }
+                    } else {
+                        touched[touchedCount++] = next;
+                    }
+                    q[t++] = next;
+                }
+            }
+            if (forward) {
+                head = h;
+                tail = t;
+            } else {
+                headBack = h;
+                tailBack = t;
+            }
+            if (best != Integer.MAX_VALUE) return best;
+        }
+        return -1;
+    }
+
+    // BFS for length-only finders: the level being expanded is the distance, so no dist array
+    private int bfsLevels() {
+        ensure(false, false);
+        int head = 0, tail = 0;
+        seen[start] = epoch;
+        queue[tail++] = start;
+        for (int level = 0; head < tail; level++) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int current = queue[head++];
+                expanded++;
+                if (current == end) return level;
+                int n = maze.neighbors(current, neighbors);
+                for (int k = 0; k < n; k++) {
+                    int next = neighbors[k];
+                    scanned++;
+                    if (seen[next] != epoch && !maze.isWall(next)) {
+                        seen[next] = epoch;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Bidirectional BFS for length-only finders, also counting levels. No cell is ever reached
+    // from both sides before this returns, so a cell the other side has reached must sit on its
+    // frontier (it would have reached our side otherwise): the first meeting gives the length.
+    private int bidirectionalLevels() {
+        ensure(true, false);
+        if (start == end) return 0;
+        seen[start] = epoch;
+        seenBack[end] = epoch;
+        queue[0] = start;
+        queueBack[0] = end;
+        int head = 0, tail = 1, headBack = 0, tailBack = 1;
+        int level = 0, levelBack = 0; // Distance of each side's frontier from its end
+
+        while (head < tail && headBack < tailBack) {
+            boolean forward = tail - head <= tailBack - headBack;
+            int[] q = forward ? queue : queueBack;
+            int[] mark = forward ? seen : seenBack, otherMark = forward ? seenBack : seen;
+            int h = forward ? head : headBack, t = forward ? tail : tailBack;
+            int meetLength = level + levelBack + 1;
+            int levelEnd = t;
+            while (h < levelEnd) {
+                int current = q[h++];
+                expanded++;
+                int n = maze.neighbors(current, neighbors);
+                for (int k = 0; k < n; k++) {
+                    int next = neighbors[k];
+                    scanned++;
+                    if (mark[next] == epoch || maze.isWall(next)) continue;
+                    if (otherMark[next] == epoch) return meetLength;
+                    mark[next] = epoch;
+                    q[t++] = next;
+                }
+            }
+            if (forward) {
+                head = h;
+                tail = t;
+                level++;
+            } else {
+                headBack = h;
+                tailBack = t;
+                levelBack++;
+            }
+        }
+        return -1;
+    }
+
+    private int aStar() {
+        ensure(false, true);
+        reach(start, start, 0);
+        open.push(start, priority(0, start));
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            expanded++;
+            if (current == end) return dist[current];
+            int g = dist[current] + 1;
+            int n = maze.neighbors(current, neighbors);
+            for (int k = 0; k < n; k++) {
+                int next = neighbors[k];
+                scanned++;
+                if (maze.isWall(next)) continue;
+                if (seen[next] != epoch) {
+                    reach(next, current, g);
+                } else if (g < dist[next] && open.contains(next)) {
+                    if (parent != null) parent[next] = current;
+                    dist[next] = g;
+                } else {
+                    continue;
+                }
+                open.push(next, priority(g, next));
+            }
+        }
+        return -1;
+    }
+
+    private int jps() {
+        ensure(false, true);
+        reach(start, start, 0);
+        open.push(start, priority(0, start));
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            expanded++;
+            if (current == end) return dist[current];
+            int r = current / cols, c = current - r * cols;
+            int p = parent[current];
+            if (p == current) {
+                successor(current, r, c, 0, 1);
+                successor(current, r, c, 1, 0);
+                successor(current, r, c, 0, -1);
+                successor(current, r, c, -1, 0);
+            } else if (p / cols == r) {
+                // Arrived horizontally: carry on, or turn either way
+                int dc = c > p - r * cols ? 1 : -1;
+                successor(current, r, c, 0, dc);
+                successor(current, r, c, 1, 0);
+                successor(current, r, c, -1, 0);
+            } else {
+                int dr = r > p / cols ? 1 : -1;
+                successor(current, r, c, dr, 0);
+                successor(current, r, c, 0, 1);
+                successor(current, r, c, 0, -1);
+            }
+        }
+        return -1;
+    }
+
+    private void successor(int current, int r, int c, int dr, int dc) {
+        int jump = jump(r + dr, c + dc, dr, dc);
+        if (jump < 0) return;
+        int g = dist[current] + Math.abs(jump / cols - r) + Math.abs(jump % cols - c);
+        if (seen[jump] != epoch) {
+            reach(jump, current, g);
+        } else if (g < dist[jump] && open.contains(jump)) {
+            parent[jump] = current;
+            dist[jump] = g;
+        } else {
+            return;
+        }
+        open.push(jump, priority(g, jump));
+    }
+
+    // Walks from (r, c) in one direction; returns the first jump point, or -1 at a wall.
+    // A cell is a jump point if it is the goal or has an opening that the cell behind it
+    // lacks; vertical runs also stop where a horizontal run would find one.
+    private int jump(int r, int c, int dr, int dc) {
+        while (isOpen(r, c)) {
+            scanned++;
+            int cell = r * cols + c;
+            if (cell == end) return cell;
+            if (dc != 0) {
+                if ((isOpen(r - 1, c) && !isOpen(r - 1, c - dc)) || (isOpen(r + 1, c) && !isOpen(r + 1, c - dc))) {
+                    return cell;
+                }
+            } else {
+                if ((isOpen(r, c - 1) && !isOpen(r - dr, c - 1)) || (isOpen(r, c + 1) && !isOpen(r - dr, c + 1))) {
+                    return cell;
+                }
+                if (jump(r, c + 1, 0, 1) >= 0 || jump(r, c - 1, 0, -1) >= 0) return cell;
+            }
+            r += dr;
+            c += dc;
+        }
+        return -1;
+    }
+
+    private boolean isOpen(int r, int c) {
+        return r >= 0 && c >= 0 && r < rows && c < cols && !maze.isWall(r * cols + c);
+    }
+
+    // f = g + h in the high half; h in the low half so that equal f prefers cells nearer the goal
+    private long priority(int g, int cell) {
+        int r = cell / cols, c = cell - r * cols;
+        int h = Math.abs(r - end / cols) + Math.abs(c - end % cols);
+        return (long) (g + h) << 32 | h;
+    }
+
+    private void reach(int cell, int from, int d) {
+        seen[cell] = epoch;
+        dist[cell] = d;
+        if (parent != null) parent[cell] = from;
+        if (touched != null) touched[touchedCount++] = cell;
+    }
+
+    // Starts a new epoch, which forgets every cell the last search reached
+    private void reset() {
+        if (++epoch == 0) {
+            // Wrapped after 2^32 searches: clear the stamps once
+            if (seen != null) java.util.Arrays.fill(seen, 0);
+            if (seenBack != null) java.util.Arrays.fill(seenBack, 0);
+            epoch = 1;
+        }
+        touchedCount = 0;
+        if (open != null) open.clear();
+    }
+
+    // Allocates what the current algorithm needs; a length-only finder skips what only paths use
+    private void ensure(boolean bidirectional, boolean heap) {
+        if (seen == null) seen = new int[cells];
+        if (!lengthOnly && touched == null) touched = new int[cells];
+        if (parent == null && (!lengthOnly || algorithm == Algorithm.JPS)) parent = new int[cells];
+        if (dist == null && (!lengthOnly || heap)) dist = new int[cells];
+        if (queue == null && !heap) queue = new int[cells];
+        if (bidirectional && seenBack == null) {
+            seenBack = new int[cells];
+            queueBack = new int[cells];
+            if (!lengthOnly) {
+                parentBack = new int[cells];
+                distBack = new int[cells];
+            }
+        }
+        if (heap && open == null) open = new IndexedMinHeap(cells);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * One maze solve run off the Swing thread.
+ * The task only reads the maze's walls and keeps its own visited and path state; every
+ * cell it marks is published to a CellDeltaRing in order, and the panel applies those
+ * deltas to the maze as it animates them. DFS and BFS are the panel's original searches;
+ * the others run through PathFinder and then publish the cells they reached and the path.
+ */
+public class SolveTask implements Runnable {
+    public enum Method { DFS, BFS, BIDIRECTIONAL_BFS, A_STAR, JPS }
+
+    private final Maze maze;
+    private final Method method;
+    private final int start, end;
+    private final CellDeltaRing deltas;
+    private final int[] neighbors = new int[4];
+    private boolean[] visited, onPath;
+
+    public SolveTask(Maze maze, Method method, int start, int end, CellDeltaRing deltas) {
+        this.maze = maze;
+        this.method = method;
+        this.start = start;
+        this.end = end;
+        this.deltas = deltas;
+    }
+
+    @Override
+    public void run() {
+        try {
+            switch (method) {
+                case DFS: solveDFS(); break;
+                case BFS: solveBFS(); break;
+                case BIDIRECTIONAL_BFS: solveWith(PathFinder.Algorithm.BIDIRECTIONAL_BFS); break;
+                case A_STAR: solveWith(PathFinder.Algorithm.A_STAR); break;
+                default: solveWith(PathFinder.Algorithm.JPS); break;
+            }
+        } finally {
+            deltas.finish();
+        }
+    }
+
+    public void cancel() {
+        deltas.close();
+    }
+
+    private void solveDFS() {
+        visited = new boolean[maze.cells()];
+        int[] stack = new int[maze.cells()];
+        int top = 0;
+        stack[top++] = start;
+        if (!visit(start)) return;
+
+        while (top > 0) {
+            int current = stack[--top];
+            if (current == end) break;
+
+            int n = maze.neighbors(current, neighbors);
+            for (int k = 0; k < n; k++) {
+                int neighbor = neighbors[k];
+                if (!visited[neighbor] && !maze.isWall(neighbor)) {
+                    if (!visit(neighbor)) return;
+                    stack[top++] = neighbor;
+                }
+            }
+        }
+
+        markPathDFS(start);
+    }
+
+    private void solveBFS() {
+        visited = new boolean[maze.cells()];
+        int[] queue = new int[maze.cells()];
+        int[] parent = new int[maze.cells()];
+        java.util.Arrays.fill(parent, -1);
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        parent[start] = start;
+
+        while (head < tail) {
+            int current = queue[head++];
+            if (!visit(current)) return;
+
+            if (current == end) break;
+
+            int n = maze.neighbors(current, neighbors);
+            for (int k = 0; k < n; k++) {
+                int neighbor = neighbors[k];
+                if (!maze.isWall(neighbor) && parent[neighbor] < 0) {
+                    parent[neighbor] = current;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        int curr = end;
+        while (parent[curr] >= 0 && curr != start) {
+            if (!deltas.put(CellDeltaRing.delta(curr, PackedMaze.PATH))) return;
+            curr = parent[curr];
+        }
+    }
+
+    private void solveWith(PathFinder.Algorithm algorithm) {
+        PathFinder finder = new PathFinder(maze);
+        finder.solve(algorithm, start, end);
+        for (int k = 0; k < finder.reachedCount(); k++) {
+            if (!deltas.put(CellDeltaRing.delta(finder.reached(k), PackedMaze.VISITED))) return;
+        }
+        for (int cell : finder.path()) {
+            if (!deltas.put(CellDeltaRing.delta(cell, PackedMaze.PATH))) return;
+        }
+    }
+
+    // Marks a cell visited once; false if the solve has been cancelled
+    private boolean visit(int cell) {
+        if (visited[cell]) return !deltas.isClosed();
+        visited[cell] = true;
+        return deltas.put(CellDeltaRing.delta(cell, PackedMaze.VISITED));
+    }
+
+    private void markPathDFS(int current) {
+        // Follows visited cells from the start, marking the first unmarked one at each step
+        onPath = new boolean[maze.cells()];
+        while (visited[current] && current != end) {
+            onPath[current] = true;
+            if (!deltas.put(CellDeltaRing.delta(current, PackedMaze.PATH))) return;
+            int next = -1;
+            int n = maze.neighbors(current, neighbors);
+            for (int k = 0; k < n; k++) {
+                if (visited[neighbors[k]] && !onPath[neighbors[k]]) {
+                    next = neighbors[k];
+                    break;
+                }
+            }
+            if (next < 0) return;
+            current = next;
+        }
+    }
+}
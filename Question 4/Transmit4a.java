@@ -46,36 +46,128 @@
 import java.util.*;
 
 public class Transmit4a {
-    private final Map<Integer, List<int[]>> graph;
+    // Compressed sparse row graph: office u's links are entries offsets[u] .. offsets[u + 1] - 1,
+    // each a neighbour in targets plus the rank of its strength among the distinct strengths.
+    // Entries are sorted by strength inside every slice, so a search can stop at the first
+    // link that is too strong. Ranks take 2 bytes when there are at most 65,536 distinct
+    // strengths, which makes a link 12 bytes for both directions.
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final char[] narrowRanks; // Ranks when they fit in 16 bits, otherwise null
+    private final int[] wideRanks;    // Ranks otherwise
+    private final int[] strengths;    // Distinct strengths, ascending
+    private volatile TransmitIndex index; // Built on the first canTransmit, see index()
 
     public Transmit4a(int n, int[][] links) {
-        graph = new HashMap<>();
-        for (int i = 0; i < n; i++) {
-            graph.put(i, new ArrayList<>());
+        this.n = n;
+        int m = links.length;
+        long[] order = new long[m];
+        for (int i = 0; i < m; i++) order[i] = (long) links[i][2] << 32 | i;
+        Arrays.sort(order);
+        int[] sortedA = new int[m], sortedB = new int[m], sortedStrength = new int[m];
+        int distinct = 0;
+        for (int k = 0; k < m; k++) {
+            int[] link = links[(int) order[k]];
+            sortedA[k] = link[0];
+            sortedB[k] = link[1];
+            sortedStrength[k] = link[2];
+            if (k == 0 || link[2] != sortedStrength[k - 1]) distinct++;
+        }
+        order = null;
+
+        strengths = new int[distinct];
+        offsets = new int[n + 1];
+        int entries = 0;
+        for (int k = 0, r = -1; k < m; k++) {
+            if (k == 0 || sortedStrength[k] != sortedStrength[k - 1]) strengths[++r] = sortedStrength[k];
+            if (sortedA[k] == sortedB[k]) continue; // A self-loop never helps
+            offsets[sortedA[k] + 1]++;
+            offsets[sortedB[k] + 1]++;
+            entries += 2;
         }
+        for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
 
-        for (int[] link : links) {
-            int a = link[0], b = link[1], strength = link[2];
-            graph.get(a).add(new int[]{b, strength});
-            graph.get(b).add(new int[]{a, strength}); // undirected
+        // Filling slices in ascending strength leaves each one sorted
+        targets = new int[entries];
+        narrowRanks = distinct <= 1 << 16 ? new char[entries] : null;
+        wideRanks = narrowRanks == null ? new int[entries] : null;
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int k = 0, r = -1; k < m; k++) {
+            if (k == 0 || sortedStrength[k] != sortedStrength[k - 1]) r++;
+            int a = sortedA[k], b = sortedB[k];
+            if (a == b) continue;
+            setEntry(cursor[a]++, b, r);
+            setEntry(cursor[b]++, a, r);
         }
     }
 
+    private void setEntry(int e, int target, int rank) {
+        targets[e] = target;
+        if (narrowRanks != null) narrowRanks[e] = (char) rank;
+        else wideRanks[e] = rank;
+    }
+
+    private int rank(int e) {
+        return narrowRanks != null ? narrowRanks[e] : wideRanks[e];
+    }
+
+    // Number of distinct strengths below maxStrength: a link is usable iff its rank is less
+    private int rankLimit(int maxStrength) {
+        int i = Arrays.binarySearch(strengths, maxStrength);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    // Bytes held by the graph arrays; the index, once built, is counted by indexBytes()
+    public long graphBytes() {
+        long entries = targets.length;
+        return 4L * offsets.length + 4 * entries + (narrowRanks != null ? 2 : 4) * entries + 4L * strengths.length;
+    }
+
+    // Bytes held by the index, or 0 while it has not been built
+    public long indexBytes() {
+        TransmitIndex built = index;
+        return built == null ? 0 : built.bytes();
+    }
+
+    // O(log n) through the immutable index; safe to call from many threads at once
     public boolean canTransmit(int sender, int receiver, int maxStrength) {
-        Set<Integer> visited = new HashSet<>();
-        Queue<Integer> queue = new LinkedList<>();
-        queue.add(sender);
-        visited.add(sender);
+        return index().canTransmit(sender, receiver, maxStrength);
+    }
+
+    // The online index, built from the graph on first use, so an instance that only ever
+    // answers batches or BFS queries costs no more than its graph
+    public TransmitIndex index() {
+        TransmitIndex built = index;
+        if (built != null) return built;
+        synchronized (this) {
+            if (index == null) {
+                int[][] links = linksByRank();
+                index = new TransmitIndex(n, links[0], links[1], links[2], strengths);
+            }
+            return index;
+        }
+    }
 
-        while (!queue.isEmpty()) {
-            int curr = queue.poll();
+    // Breadth-first search over the CSR graph, kept as a reference for the index
+    public boolean canTransmitBfs(int sender, int receiver, int maxStrength) {
+        int limit = rankLimit(maxStrength);
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        queue[tail++] = sender;
+        visited[sender] = true;
+
+        while (head < tail) {
+            int curr = queue[head++];
             if (curr == receiver) return true;
 
-            for (int[] neighbor : graph.get(curr)) {
-                int next = neighbor[0], strength = neighbor[1];
-                if (strength < maxStrength && !visited.contains(next)) {
-                    visited.add(next);
-                    queue.add(next);
+            for (int e = offsets[curr], end = offsets[curr + 1]; e < end; e++) {
+                if (rank(e) >= limit) break; // The rest of the slice is at least as strong
+                int next = targets[e];
+                if (!visited[next]) {
+                    visited[next] = true;
+                    queue[tail++] = next;
                 }
             }
         }
@@ -83,6 +175,78 @@ public class Transmit4a {
         return false;
     }
 
+    // Answers many [sender, receiver, maxStrength] queries at once (offline Kruskal).
+    // Queries are taken in order of maxStrength while links are merged into a union-find in
+    // order of strength, so each query only checks whether both offices share a component.
+    // O((E + Q) log Q) in total instead of one BFS per query.
+    public boolean[] canTransmitAll(int[][] queries) {
+        long[] order = new long[queries.length];
+        for (int q = 0; q < queries.length; q++) order[q] = (long) queries[q][2] << 32 | q;
+        Arrays.sort(order);
+
+        int[][] links = linksByRank();
+        int[] linkA = links[0], linkB = links[1], start = links[2];
+
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        boolean[] answers = new boolean[queries.length];
+        int next = 0; // Next link to merge
+        for (long key : order) {
+            int q = (int) key;
+            int end = start[rankLimit(queries[q][2])];
+            for (; next < end; next++) union(parent, size, linkA[next], linkB[next]);
+            answers[q] = find(parent, queries[q][0]) == find(parent, queries[q][1]);
+        }
+        return answers;
+    }
+
+    // Each link once, bucketed by rank straight from the CSR slices: {linkA, linkB, start},
+    // where links start[r] .. start[r + 1] - 1 have strength strengths[r]
+    private int[][] linksByRank() {
+        int[] start = new int[strengths.length + 1];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) if (u < targets[e]) start[rank(e) + 1]++;
+        }
+        for (int r = 0; r < strengths.length; r++) start[r + 1] += start[r];
+        int[] linkA = new int[start[strengths.length]], linkB = new int[linkA.length];
+        int[] cursor = Arrays.copyOf(start, strengths.length);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                if (u < targets[e]) {
+                    int k = cursor[rank(e)]++;
+                    linkA[k] = u;
+                    linkB[k] = targets[e];
+                }
+            }
+        }
+        return new int[][]{linkA, linkB, start};
+    }
+
+    // Root of x, halving the path on the way up
+    static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    static void union(int[] parent, int[] size, int a, int b) {
+        int ra = find(parent, a), rb = find(parent, b);
+        if (ra == rb) return;
+        if (size[ra] < size[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+    }
+
     public static void main(String[] args) {
         int[][] links = {
             {0, 2, 4},
@@ -97,5 +261,8 @@ public class Transmit4a {
         System.out.println(st.canTransmit(1, 3, 3)); // false
         System.out.println(st.canTransmit(2, 0, 3)); // true
         System.out.println(st.canTransmit(0, 5, 6)); // false
+
+        int[][] queries = {{2, 3, 2}, {1, 3, 3}, {2, 0, 3}, {0, 5, 6}};
+        System.out.println(Arrays.toString(st.canTransmitAll(queries)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Benchmark for Transmit4a on a random office network: all queries at once with the offline
+// union-find canTransmitAll, one at a time through the TransmitIndex on one thread and on
+// every core, and with the original BFS on a sample. All answers are checked against the batch.
+// The graph and the lazily built index are sized separately.
+// Usage: java Transmit4aBenchmark [offices] [links] [queries] [bfsQueries] [threads]
+
+public class Transmit4aBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int q = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        int bfsQueries = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        Random random = new Random(1);
+        int[][] links = new int[m][];
+        for (int i = 0; i < m; i++) {
+            links[i] = new int[]{random.nextInt(n), random.nextInt(n), 1 + random.nextInt(1000)};
+        }
+        int[][] queries = new int[q][];
+        for (int i = 0; i < q; i++) {
+            queries[i] = new int[]{random.nextInt(n), random.nextInt(n), 1 + random.nextInt(1000)};
+        }
+
+        long start = System.nanoTime();
+        Transmit4a network = new Transmit4a(n, links);
+        System.out.printf("%,d offices, %,d links: built in %.2f s, graph %,d MB%n", n, m,
+            (System.nanoTime() - start) / 1e9, network.graphBytes() >> 20);
+
+        boolean[] answers = null;
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            answers = network.canTransmitAll(queries);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (round == 2) {
+                System.out.printf("canTransmitAll: %,d queries in %.3f s, %,.0f queries/s%n", q, seconds, q / seconds);
+            }
+        }
+
+        start = System.nanoTime();
+        TransmitIndex index = network.index();
+        System.out.printf("index built in %.2f s, %,d MB (graph + index %,d MB)%n", (System.nanoTime() - start) / 1e9,
+            network.indexBytes() >> 20, (network.graphBytes() + network.indexBytes()) >> 20);
+
+        for (int workers : threads == 1 ? new int[]{1} : new int[]{1, threads}) {
+            for (int round = 0; round < 3; round++) {
+                start = System.nanoTime();
+                online(index, queries, answers, workers);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                if (round == 2) {
+                    System.out.printf("canTransmit (index, %d thread(s)): %,.0f queries/s%n", workers, q / seconds);
+                }
+            }
+        }
+
+        int yes = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < bfsQueries; i++) {
+            int[] query = queries[i];
+            boolean answer = network.canTransmitBfs(query[0], query[1], query[2]);
+            if (answer != answers[i]) throw new IllegalStateException("answers differ for query " + i);
+            if (answer) yes++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("canTransmit (BFS): %,d queries in %.3f s, %,.0f queries/s (%d true), same answers%n",
+            bfsQueries, seconds, bfsQueries / seconds, yes);
+    }
+
+    // Splits the queries across threads sharing one index and checks every answer; the first
+    // failure in any worker is rethrown here once all of them have finished
+    static void online(TransmitIndex index, int[][] queries, boolean[] expected, int workers) {
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread[] pool = new Thread[workers];
+        for (int w = 0; w < workers; w++) {
+            int from = (int) ((long) queries.length * w / workers);
+            int to = (int) ((long) queries.length * (w + 1) / workers);
+            pool[w] = new Thread(() -> {
+                try {
+                    for (int i = from; i < to && failure.get() == null; i++) {
+                        int[] query = queries[i];
+                        if (index.canTransmit(query[0], query[1], query[2]) != expected[i]) {
+                            throw new IllegalStateException("answers differ for query " + i);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            pool[w].start();
+        }
+        for (Thread t : pool) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for workers", e);
+            }
+        }
+        if (failure.get() != null) throw failure.get();
+    }
+}
@@ -0,0 +1,110 @@
+// Immutable online index for Transmit4a threshold queries (Kruskal reconstruction tree).
+// Links are merged in ascending strength as in Kruskal's algorithm, and every merge of two
+// components adds a tree node carrying that link's strength above both of them. Offices are
+// the leaves. Two offices can transmit below maxStrength exactly when their lowest common
+// ancestor has strength < maxStrength, since strengths never decrease going up.
+// The ancestor is found with heavy-light decomposition: every node's heavy child is the one
+// with more leaves, chains of heavy children share a head, and climbing from any leaf to
+// the root crosses at most log2(n) chains. That keeps the index at four ints per tree node
+// (under 2n nodes), where binary lifting would need log2(n) + 3.
+// Queries are O(log n), allocate nothing, and only read final arrays, so any number of
+// threads can share one index.
+
+public final class TransmitIndex {
+    private final int offices, nodes;
+    private final int[] parent;    // -1 for roots
+    private final int[] depth;
+    private final int[] head;      // Top node of each node's heavy chain
+    private final int[] strength;  // Merge strength of each tree node; MIN_VALUE for leaves
+
+    // Links bucketed by ascending strength: links start[r] .. start[r + 1] - 1 all have
+    // strength strengths[r]
+    TransmitIndex(int n, int[] linkA, int[] linkB, int[] start, int[] strengths) {
+        offices = n;
+        int capacity = Math.max(1, 2 * n - 1);
+        int[] up = new int[capacity];
+        java.util.Arrays.fill(up, -1);
+        int[] weight = new int[capacity];
+        int[] dsu = new int[n], size = new int[n], treeNode = new int[n];
+        for (int i = 0; i < n; i++) {
+            dsu[i] = i;
+            size[i] = 1;
+            treeNode[i] = i;
+            weight[i] = Integer.MIN_VALUE;
+        }
+
+        // Kruskal: each useful link becomes a parent of the two components it joins
+        int count = n;
+        for (int r = 0; r < strengths.length && count < capacity; r++) {
+            for (int k = start[r]; k < start[r + 1] && count < capacity; k++) {
+                int ra = Transmit4a.find(dsu, linkA[k]), rb = Transmit4a.find(dsu, linkB[k]);
+                if (ra == rb) continue;
+                int node = count++;
+                weight[node] = strengths[r];
+                up[treeNode[ra]] = node;
+                up[treeNode[rb]] = node;
+                if (size[ra] < size[rb]) {
+                    int t = ra;
+                    ra = rb;
+                    rb = t;
+                }
+                dsu[rb] = ra;
+                size[ra] += size[rb];
+                treeNode[ra] = node;
+            }
+        }
+        dsu = size = treeNode = null;
+        nodes = count;
+        parent = java.util.Arrays.copyOf(up, nodes);
+        strength = java.util.Arrays.copyOf(weight, nodes);
+        up = weight = null;
+
+        // Children always have smaller ids than their parents: an ascending sweep is
+        // bottom-up (leaf counts, heavy children), a descending one top-down (depths, heads)
+        int[] leaves = new int[nodes];
+        int[] heavy = new int[nodes];
+        java.util.Arrays.fill(heavy, -1);
+        for (int v = 0; v < nodes; v++) {
+            if (v < n) leaves[v] = 1;
+            int p = parent[v];
+            if (p < 0) continue;
+            leaves[p] += leaves[v];
+            if (heavy[p] < 0 || leaves[v] > leaves[heavy[p]]) heavy[p] = v;
+        }
+        depth = leaves; // Leaf counts are no longer needed once the heavy children are known
+        head = new int[nodes];
+        for (int v = nodes - 1; v >= 0; v--) {
+            int p = parent[v];
+            depth[v] = p < 0 ? 0 : depth[p] + 1;
+            head[v] = p >= 0 && heavy[p] == v ? head[p] : v;
+        }
+    }
+
+    public int offices() {
+        return offices;
+    }
+
+    // Bytes held by the index arrays
+    public long bytes() {
+        return 4L * 4 * nodes;
+    }
+
+    // True if some path joins the two offices using only links with strength < maxStrength
+    public boolean canTransmit(int sender, int receiver, int maxStrength) {
+        if (sender == receiver) return true;
+        int u = sender, v = receiver;
+        while (head[u] != head[v]) {
+            int hu = head[u], hv = head[v];
+            if (depth[hu] < depth[hv]) {
+                int t = u;
+                u = v;
+                v = t;
+                hu = hv;
+            }
+            if (parent[hu] < 0) return false; // Both chains start at a root: different trees
+            u = parent[hu];
+        }
+        int ancestor = depth[u] <= depth[v] ? u : v;
+        return strength[ancestor] < maxStrength;
+    }
+}
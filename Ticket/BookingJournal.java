@@ -0,0 +1,283 @@
+package Ticket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+// Append-only write-ahead journal of booking events with group commit.
+// Records are fixed 24-byte entries: op, eventId, value, a check word that exposes torn
+// writes at the tail after a crash, and the seat's version after the change. Bookings are
+// journaled right after they take effect, so two changes to one seat can reach the journal
+// in either order; replay keeps the highest version per seat instead of the last record.
+//
+// Appenders fill an in-memory buffer; a single writer thread waits up to commitIntervalNanos
+// to gather more records, writes the whole batch with one FileChannel write and one force(),
+// then wakes everyone whose records are now durable.
+class BookingJournal implements Closeable {
+    static final int RECORD_SIZE = 24;
+
+    static final int OP_ADD_EVENT = 1; // value = number of seats
+    static final int OP_BOOK = 2;      // value = seat number
+    static final int OP_CANCEL = 3;    // value = seat number
+    static final int GROUP_CONTINUES = 0x100; // Flag: next record belongs to the same group booking
+
+    static final int DEFAULT_MAX_BATCH_RECORDS = 4096;
+    static final long DEFAULT_COMMIT_INTERVAL_NANOS = 200_000;
+
+    final Path path;
+    final FileChannel channel;
+    final boolean fsync;
+    final long commitIntervalNanos;
+    final int maxBatchRecords;
+
+    private ByteBuffer pending;  // Filled by appenders, guarded by this
+    private ByteBuffer writing;  // Owned by the writer thread
+    private long appended;       // Records accepted so far, guarded by this
+    private volatile long durable; // Records written (and forced when fsync is on)
+    private volatile boolean closed;
+    private IOException failure;
+    private final Thread writer;
+
+    // Commit statistics
+    private volatile long commits;
+    private volatile long commitNanos;
+
+    public BookingJournal(Path path) throws IOException {
+        this(path, 0, true, DEFAULT_COMMIT_INTERVAL_NANOS, DEFAULT_MAX_BATCH_RECORDS);
+    }
+
+    // Opens the journal for appending after its first validRecords records; anything past
+    // that (a torn tail from a crash) is truncated away
+    public BookingJournal(Path path, long validRecords, boolean fsync, long commitIntervalNanos, int maxBatchRecords)
+            throws IOException {
+        this.path = path;
+        this.fsync = fsync;
+        this.commitIntervalNanos = commitIntervalNanos;
+        this.maxBatchRecords = maxBatchRecords;
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.truncate(validRecords * RECORD_SIZE);
+        channel.position(validRecords * RECORD_SIZE);
+        this.appended = validRecords;
+        this.durable = validRecords;
+        this.pending = ByteBuffer.allocateDirect(maxBatchRecords * RECORD_SIZE);
+        this.writing = ByteBuffer.allocateDirect(maxBatchRecords * RECORD_SIZE);
+        this.writer = new Thread(this::writeLoop, "booking-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    static int check(int op, int eventId, int value, long version) {
+        int h = op * 0x9E3779B9 ^ eventId * 0x85EBCA6B ^ value * 0xC2B2AE35
+            ^ (int) version * 0x27D4EB2F ^ (int) (version >>> 32) * 0x165667B1;
+        return h ^ (h >>> 16) ^ 0x5EED;
+    }
+
+    // Appends one unversioned record (an event, or a benchmark record) and returns its sequence
+    public long append(int op, int eventId, int value) throws IOException {
+        return append(op, eventId, value, 0);
+    }
+
+    // Appends one record and returns its sequence number (records up to and including it)
+    public long append(int op, int eventId, int value, long version) throws IOException {
+        synchronized (this) {
+            reserve(1);
+            put(op, eventId, value, version);
+            return appended;
+        }
+    }
+
+    // Appends a group booking as consecutive records; replay applies them only if all made it
+    public long appendGroup(int eventId, int[] seatNumbers, long[] versions) throws IOException {
+        if (seatNumbers.length > maxBatchRecords) throw new IllegalArgumentException("Group larger than a commit batch");
+        synchronized (this) {
+            reserve(seatNumbers.length);
+            for (int k = 0; k < seatNumbers.length; k++) {
+                boolean last = k == seatNumbers.length - 1;
+                put(last ? OP_BOOK : OP_BOOK | GROUP_CONTINUES, eventId, seatNumbers[k], versions[k]);
+            }
+            return appended;
+        }
+    }
+
+    private void put(int op, int eventId, int value, long version) {
+        pending.putInt(op).putInt(eventId).putInt(value).putInt(check(op, eventId, value, version)).putLong(version);
+        appended++;
+        if (pending.position() == RECORD_SIZE) notifyAll(); // Wake the writer on the first record
+    }
+
+    // Waits until the pending buffer has room for the given number of records. Once a write has
+    // failed every append fails too, so nothing is accepted that can never become durable.
+    private void reserve(int records) throws IOException {
+        while (true) {
+            if (failure != null) throw failure;
+            if (closed) throw new IOException("Journal closed");
+            if (pending.remaining() >= records * RECORD_SIZE) return;
+            LockSupport.unpark(writer); // Cut the commit window short
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while appending", e);
+            }
+        }
+    }
+
+    // Number of records accepted so far
+    public synchronized long appendedSequence() {
+        return appended;
+    }
+
+    public long durableSequence() {
+        return durable;
+    }
+
+    // Blocks until every record up to the given sequence number is on disk
+    public void awaitDurable(long sequence) throws IOException {
+        if (durable >= sequence) return;
+        synchronized (this) {
+            while (durable < sequence) {
+                if (failure != null) throw failure;
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for commit", e);
+                }
+            }
+        }
+    }
+
+    // Waits for everything appended so far to become durable
+    public void sync() throws IOException {
+        awaitDurable(appendedSequence());
+    }
+
+    public long getCommits() {
+        return commits;
+    }
+
+    public long getCommitNanos() {
+        return commitNanos;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            long batchEnd;
+            synchronized (this) {
+                try {
+                    while (pending.position() == 0 && !closed) wait();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (pending.position() == 0) return; // Closed and fully flushed
+            }
+
+            // Group commit window: gather more records; an appender facing a full buffer unparks us early
+            if (commitIntervalNanos > 0 && !closed) LockSupport.parkNanos(this, commitIntervalNanos);
+
+            synchronized (this) {
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batchEnd = appended;
+                notifyAll(); // Appenders blocked on a full buffer can continue
+            }
+
+            long start = System.nanoTime();
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) channel.write(writing);
+                writing.clear();
+                if (fsync) channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            commitNanos += System.nanoTime() - start;
+            commits++;
+
+            synchronized (this) {
+                durable = batchEnd;
+                notifyAll();
+            }
+        }
+    }
+
+    // Flushes everything appended so far and closes the file
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (fsync) channel.force(true);
+        channel.close();
+        if (failure != null) throw failure;
+    }
+
+    // Receives replayed records in journal order; version is 0 for unversioned records
+    interface RecordVisitor {
+        void visit(int op, int eventId, int value, long version);
+    }
+
+    // Replays the journal from the given record through memory-mapped windows and returns
+    // the number of valid records. Reading stops at the first torn or corrupt record, and a
+    // group booking cut off by it is dropped entirely.
+    static long replay(Path path, long fromRecord, RecordVisitor visitor) throws IOException {
+        return replay(path, fromRecord, Long.MAX_VALUE, visitor);
+    }
+
+    // Replays records fromRecord up to untilRecord only, e.g. the durable part of a live journal
+    static long replay(Path path, long fromRecord, long untilRecord, RecordVisitor visitor) throws IOException {
+        if (!Files.exists(path)) return 0;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            long records = Math.min(untilRecord, in.size() / RECORD_SIZE);
+            long window = (1L << 30) / RECORD_SIZE; // 1 GiB of records per mapping
+            int[] group = new int[64];
+            long[] groupVersions = new long[64];
+            int groupSize = 0;
+            long validEnd = fromRecord; // Last record that ended a complete booking
+
+            for (long base = fromRecord; base < records; base += window) {
+                long count = Math.min(window, records - base);
+                MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, base * RECORD_SIZE, count * RECORD_SIZE);
+                for (long r = 0; r < count; r++) {
+                    int op = map.getInt(), eventId = map.getInt(), value = map.getInt(), check = map.getInt();
+                    long version = map.getLong();
+                    if (check != check(op, eventId, value, version)) return validEnd;
+
+                    if ((op & GROUP_CONTINUES) != 0) {
+                        if (groupSize == group.length) {
+                            group = Arrays.copyOf(group, groupSize * 2);
+                            groupVersions = Arrays.copyOf(groupVersions, groupSize * 2);
+                        }
+                        group[groupSize] = value;
+                        groupVersions[groupSize++] = version;
+                        continue;
+                    }
+                    for (int k = 0; k < groupSize; k++) visitor.visit(OP_BOOK, eventId, group[k], groupVersions[k]);
+                    groupSize = 0;
+                    visitor.visit(op, eventId, value, version);
+                    validEnd = base + r + 1;
+                }
+            }
+            return validEnd;
+        }
+    }
+}
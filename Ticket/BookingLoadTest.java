@@ -0,0 +1,151 @@
+package Ticket;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Headless load test for BookingPipeline.
+// Producer threads keep a bounded queue full of requests spread over several events and
+// shards; the pipeline drains it with its worker pool. Each producer walks its own events
+// seat by seat, so every request targets a seat nobody has asked for since the previous
+// pass, and cancels the seat just before asking for it again. Bookings therefore keep going
+// through the real FREE -> BOOKED compare-and-set instead of failing fast on taken seats.
+// Reports successful bookings per second as seen by a listener, with attempts alongside.
+//
+// Pass "nometrics" as the fifth argument to switch instrumentation off. Pass "overhead" to
+// measure what metrics cost: runs alternate off and on (OVERHEAD_ROUNDS of each, in a single
+// JVM after a warm-up run) and the medians are compared; the target is under 2%.
+//
+// Usage: java Ticket.BookingLoadTest [workers] [batchSize] [virtual|platform] [seconds] [metrics|nometrics|overhead]
+public class BookingLoadTest {
+    static final int SHARDS = 8;
+    static final int EVENTS = 32;
+    static final int SEATS_PER_EVENT = 100_000;
+    static final int PRODUCERS = 2;
+    static final int MIN_REQUESTS_PER_PRODUCER = 1 << 16;
+    static final int OVERHEAD_ROUNDS = 5;
+    static final double OVERHEAD_TARGET_PERCENT = 2;
+
+    public static void main(String[] args) throws InterruptedException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : BookingPipeline.DEFAULT_BATCH_SIZE;
+        boolean virtualThreads = args.length > 2 && args[2].equals("virtual");
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        String metricsArg = args.length > 4 ? args[4] : "metrics";
+
+        if (!metricsArg.equals("overhead")) {
+            run(workers, batchSize, virtualThreads, seconds, !metricsArg.equals("nometrics"), true);
+            return;
+        }
+
+        run(workers, batchSize, virtualThreads, seconds, true, false); // Warm-up, not counted
+        double[] off = new double[OVERHEAD_ROUNDS], on = new double[OVERHEAD_ROUNDS];
+        for (int round = 0; round < OVERHEAD_ROUNDS; round++) {
+            off[round] = run(workers, batchSize, virtualThreads, seconds, false, false);
+            on[round] = run(workers, batchSize, virtualThreads, seconds, true, false);
+            System.out.printf("  round %d: metrics off %,.0f, on %,.0f bookings/sec%n", round + 1, off[round], on[round]);
+        }
+        Arrays.sort(off);
+        Arrays.sort(on);
+        double medianOff = off[OVERHEAD_ROUNDS / 2], medianOn = on[OVERHEAD_ROUNDS / 2];
+        double overhead = 100 * (medianOff - medianOn) / medianOff;
+        System.out.printf("Median: off %,.0f, on %,.0f bookings/sec; metrics overhead %.2f%% (target < %.0f%%): %s%n",
+            medianOff, medianOn, overhead, OVERHEAD_TARGET_PERCENT, overhead < OVERHEAD_TARGET_PERCENT ? "OK" : "OVER");
+    }
+
+    // Smallest power of two above the number of requests that can be outstanding at once
+    static int ringSize(long outstanding) {
+        if (outstanding >= 1 << 30) throw new IllegalArgumentException("Queue and batches too large: " + outstanding);
+        int size = MIN_REQUESTS_PER_PRODUCER;
+        while (size <= outstanding) size <<= 1;
+        return size;
+    }
+
+    // One load run on a fresh store and pipeline; returns successful bookings per second
+    static double run(int workers, int batchSize, boolean virtualThreads, int seconds, boolean withMetrics,
+            boolean verbose) throws InterruptedException {
+        ShardedSeatStore store = new ShardedSeatStore(SHARDS);
+        for (int e = 0; e < EVENTS; e++) store.addEvent(SEATS_PER_EVENT);
+
+        BlockingQueue<BookingRequest> queue = new LinkedBlockingQueue<>(batchSize * workers * 4);
+        BookingPipeline pipeline = new BookingPipeline(queue, store, workers, batchSize, virtualThreads);
+        pipeline.setMode(LockingMode.LOCK_FREE);
+        if (!withMetrics) pipeline.setMetrics(null);
+
+        LongAdder attempts = new LongAdder();
+        LongAdder booked = new LongAdder();
+        pipeline.addListener((List<BookingResult> results) -> {
+            attempts.add(results.size());
+            for (BookingResult result : results) if (result.success) booked.increment();
+        });
+
+        // Producers recycle a fixed ring of request objects so allocation stays on the consumer
+        // side. At most the queue's capacity plus one batch per worker can be waiting or in
+        // flight, and the queue is FIFO, so a ring larger than that never reuses a request
+        // that a worker may still read.
+        int ringSize = ringSize(queue.remainingCapacity() + (long) batchSize * workers);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            BookingRequest[] requests = new BookingRequest[ringSize];
+            for (int r = 0; r < requests.length; r++) requests[r] = new BookingRequest("U" + r, 0, 1);
+            int firstEvent = p;
+            producers[p] = new Thread(() -> {
+                int ownEvents = (EVENTS - firstEvent + PRODUCERS - 1) / PRODUCERS;
+                long position = 0;
+                try {
+                    for (int r = 0; !Thread.currentThread().isInterrupted(); r = (r + 1) & (requests.length - 1)) {
+                        // Round-robin over this producer's events, one seat further each round
+                        int eventId = firstEvent + (int) (position % ownEvents) * PRODUCERS;
+                        long round = position / ownEvents;
+                        int seatNumber = 1 + (int) (round % SEATS_PER_EVENT);
+                        if (round >= SEATS_PER_EVENT) store.event(eventId).cancelSeat(seatNumber);
+                        position++;
+
+                        BookingRequest request = requests[r];
+                        request.eventId = eventId;
+                        request.seatNumber = seatNumber;
+                        request.enqueuedNanos = System.nanoTime();
+                        queue.put(request);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        if (verbose) {
+            System.out.printf("%d %s workers, batch %d, %d producers, %d shards, metrics %s, %d cores%n",
+                workers, virtualThreads ? "virtual" : "platform", batchSize, PRODUCERS, SHARDS,
+                withMetrics ? "on" : "off", Runtime.getRuntime().availableProcessors());
+        }
+
+        pipeline.start();
+        for (Thread producer : producers) producer.start();
+
+        long lastBooked = 0, lastAttempts = 0;
+        long start = System.nanoTime();
+        for (int s = 1; s <= seconds; s++) {
+            Thread.sleep(1_000);
+            long nowBooked = booked.sum(), nowAttempts = attempts.sum();
+            if (verbose) {
+                System.out.printf("  second %d: %,d bookings/sec (%,d attempts)%n", s, nowBooked - lastBooked,
+                    nowAttempts - lastAttempts);
+            }
+            lastBooked = nowBooked;
+            lastAttempts = nowAttempts;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        for (Thread producer : producers) producer.interrupt();
+        for (Thread producer : producers) producer.join();
+        pipeline.shutdown();
+
+        if (verbose) {
+            System.out.printf("Average: %,.0f bookings/sec, %,.0f attempts/sec, %.1f%% succeeded%n",
+                booked.sum() / elapsed, attempts.sum() / elapsed, 100.0 * booked.sum() / Math.max(1, attempts.sum()));
+            if (withMetrics) System.out.println(pipeline.metrics.snapshot().toJson());
+        }
+        return booked.sum() / elapsed;
+    }
+}
@@ -0,0 +1,174 @@
+package Ticket;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Low-overhead booking metrics: striped LongAdder counters per locking mode plus latency
+// histograms for queue wait and booking time. Workers add their counts once per batch rather
+// than once per request, so the cost stays flat as throughput grows. The histograms hold real
+// per-request samples: each worker times one request in SAMPLE_EVERY on its own, which keeps
+// the percentiles honest without reading the clock twice for every booking.
+class BookingMetrics {
+    static final int MODES = LockingMode.values().length;
+    static final int SAMPLE_EVERY = 16;
+
+    final LongAdder[] attempts = adders();
+    final LongAdder[] successes = adders();
+    final LongAdder[] conflicts = adders();
+    final LongAdder[] retries = adders();
+    final LongAdder batches = new LongAdder();
+    final LatencyHistogram queueWait = new LatencyHistogram();   // Enqueue to start of processing, sampled
+    final LatencyHistogram bookingTime = new LatencyHistogram(); // One request's booking call, sampled
+    final long startNanos = System.nanoTime();
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[MODES];
+        for (int i = 0; i < MODES; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+
+    // Records the counts of one processed batch
+    void recordBatch(LockingMode mode, int requests, int booked, int batchConflicts, int batchRetries) {
+        int m = mode.ordinal();
+        attempts[m].add(requests);
+        successes[m].add(booked);
+        if (batchConflicts > 0) conflicts[m].add(batchConflicts);
+        if (batchRetries > 0) retries[m].add(batchRetries);
+        batches.increment();
+    }
+
+    // Records how long one sampled request waited in the queue
+    void recordQueueWait(long nanos) {
+        queueWait.record(nanos);
+    }
+
+    // Records how long booking one sampled request took
+    void recordBookingTime(long nanos) {
+        bookingTime.record(nanos);
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(this);
+    }
+
+    // Appends a snapshot to the file every periodMillis, as CSV rows or JSON lines
+    ScheduledExecutorService scheduleDump(Path file, long periodMillis, boolean json) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                MetricsSnapshot snapshot = snapshot();
+                String line = json ? snapshot.toJson() : snapshot.toCsv();
+                if (!json && (!Files.exists(file) || Files.size(file) == 0)) line = MetricsSnapshot.CSV_HEADER + "\n" + line;
+                Files.write(file, (line + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("Metrics dump failed: " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+
+    // Point-in-time copy of the metrics with derived rates and percentiles
+    static class MetricsSnapshot {
+        static final String CSV_HEADER = "uptime_s,mode,attempts,successes,conflicts,retries,"
+            + "success_rate,conflict_rate,retry_rate,queue_p50_us,queue_p99_us,queue_max_us,"
+            + "booking_p50_ns,booking_p99_ns,throughput_per_s";
+
+        final double uptimeSeconds;
+        final long[] attempts = new long[MODES], successes = new long[MODES];
+        final long[] conflicts = new long[MODES], retries = new long[MODES];
+        final long batches;
+        final long queueP50, queueP99, queueMax;
+        final long bookingP50, bookingP99;
+
+        MetricsSnapshot(BookingMetrics metrics) {
+            uptimeSeconds = (System.nanoTime() - metrics.startNanos) / 1e9;
+            for (int m = 0; m < MODES; m++) {
+                attempts[m] = metrics.attempts[m].sum();
+                successes[m] = metrics.successes[m].sum();
+                conflicts[m] = metrics.conflicts[m].sum();
+                retries[m] = metrics.retries[m].sum();
+            }
+            batches = metrics.batches.sum();
+            long[] wait = metrics.queueWait.copyCounts();
+            queueP50 = LatencyHistogram.percentile(wait, 50);
+            queueP99 = LatencyHistogram.percentile(wait, 99);
+            queueMax = metrics.queueWait.max();
+            long[] booking = metrics.bookingTime.copyCounts();
+            bookingP50 = LatencyHistogram.percentile(booking, 50);
+            bookingP99 = LatencyHistogram.percentile(booking, 99);
+        }
+
+        long totalAttempts() {
+            long total = 0;
+            for (long a : attempts) total += a;
+            return total;
+        }
+
+        long totalSuccesses() {
+            long total = 0;
+            for (long s : successes) total += s;
+            return total;
+        }
+
+        static double rate(long part, long whole) {
+            return whole == 0 ? 0 : (double) part / whole;
+        }
+
+        double successRate(int mode) {
+            return rate(successes[mode], attempts[mode]);
+        }
+
+        double conflictRate(int mode) {
+            return rate(conflicts[mode], attempts[mode]);
+        }
+
+        double retryRate(int mode) {
+            return rate(retries[mode], attempts[mode]);
+        }
+
+        // One CSV row per locking mode that has seen traffic
+        String toCsv() {
+            StringBuilder sb = new StringBuilder();
+            for (LockingMode mode : LockingMode.values()) {
+                int m = mode.ordinal();
+                if (attempts[m] == 0) continue;
+                if (sb.length() > 0) sb.append('\n');
+                sb.append(String.format(Locale.ROOT, "%.3f,%s,%d,%d,%d,%d,%.5f,%.5f,%.5f,%.1f,%.1f,%.1f,%d,%d,%.0f",
+                    uptimeSeconds, mode.name(), attempts[m], successes[m], conflicts[m], retries[m],
+                    successRate(m), conflictRate(m), retryRate(m),
+                    queueP50 / 1e3, queueP99 / 1e3, queueMax / 1e3, bookingP50, bookingP99,
+                    totalAttempts() / uptimeSeconds));
+            }
+            return sb.toString();
+        }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "{\"uptimeSeconds\":%.3f,\"batches\":%d,\"throughputPerSecond\":%.0f,",
+                uptimeSeconds, batches, totalAttempts() / uptimeSeconds));
+            sb.append(String.format(Locale.ROOT,
+                "\"queueWaitMicros\":{\"p50\":%.1f,\"p99\":%.1f,\"max\":%.1f},\"bookingNanos\":{\"p50\":%d,\"p99\":%d},",
+                queueP50 / 1e3, queueP99 / 1e3, queueMax / 1e3, bookingP50, bookingP99));
+            sb.append("\"modes\":{");
+            for (LockingMode mode : LockingMode.values()) {
+                int m = mode.ordinal();
+                if (m > 0) sb.append(',');
+                sb.append(String.format(Locale.ROOT,
+                    "\"%s\":{\"attempts\":%d,\"successes\":%d,\"conflicts\":%d,\"retries\":%d,"
+                        + "\"successRate\":%.5f,\"conflictRate\":%.5f,\"retryRate\":%.5f}",
+                    mode.name(), attempts[m], successes[m], conflicts[m], retries[m],
+                    successRate(m), conflictRate(m), retryRate(m)));
+            }
+            return sb.append("}}").toString();
+        }
+    }
+}
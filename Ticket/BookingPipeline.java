@@ -0,0 +1,101 @@
+package Ticket;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+// Receives coalesced booking results, one call per processed batch
+interface BookingListener {
+    void onResults(List<BookingResult> results);
+}
+
+// Headless booking pipeline: a worker pool of BookingProcessors drains the shared booking
+// queue in batches, books against a ShardedSeatStore and publishes one result event per
+// batch to every registered listener. The GUI is just one optional listener.
+class BookingPipeline {
+    static final int DEFAULT_BATCH_SIZE = 512;
+
+    final BlockingQueue<BookingRequest> queue;
+    final ShardedSeatStore store;
+    final int workers;
+    final int batchSize;
+    final ExecutorService executor;
+    final List<BookingListener> listeners = new CopyOnWriteArrayList<>();
+
+    volatile LockingMode mode = LockingMode.OPTIMISTIC;
+    volatile BookingMetrics metrics = new BookingMetrics(); // null turns instrumentation off
+    volatile boolean running; // Set while continuous workers are active
+
+    // Fixed pool of platform threads
+    public BookingPipeline(BlockingQueue<BookingRequest> queue, ShardedSeatStore store, int workers) {
+        this(queue, store, workers, DEFAULT_BATCH_SIZE, false);
+    }
+
+    public BookingPipeline(
+        BlockingQueue<BookingRequest> queue,
+        ShardedSeatStore store,
+        int workers,
+        int batchSize,
+        boolean virtualThreads
+    ) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be >= 1");
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+        this.queue = queue;
+        this.store = store;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.executor = virtualThreads
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(workers);
+    }
+
+    public void addListener(BookingListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BookingListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void setMode(LockingMode mode) {
+        this.mode = mode;
+    }
+
+    public void setMetrics(BookingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Queues a request, stamping the enqueue time for the queue-wait histogram
+    public void submit(BookingRequest request) throws InterruptedException {
+        request.enqueuedNanos = System.nanoTime();
+        queue.put(request);
+    }
+
+    // Drains whatever is queued right now, then the workers return to the pool
+    public void processPending() {
+        for (int i = 0; i < workers; i++) executor.execute(new BookingProcessor(this, false));
+    }
+
+    // Keeps the workers polling the queue until shutdown()
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) executor.execute(new BookingProcessor(this, true));
+    }
+
+    // Lets the workers finish the queued requests, then stops the pool
+    public void shutdown() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    // A listener that throws is reported and skipped, so it can't stop the others or the worker
+    void publish(List<BookingResult> results) {
+        for (BookingListener listener : listeners) {
+            try {
+                listener.onResults(results);
+            } catch (RuntimeException e) {
+                System.err.println("Booking listener failed: " + e);
+            }
+        }
+    }
+}
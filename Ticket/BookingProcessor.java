@@ -0,0 +1,95 @@
+package Ticket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Pipeline worker: drains the booking queue in batches, orders each batch by seat shard so
+// requests for the same shard are processed together, and publishes one result event per batch
+class BookingProcessor implements Runnable {
+    static final long IDLE_POLL_MILLIS = 10;
+
+    final BookingPipeline pipeline;
+    final boolean continuous; // Keep polling when the queue is empty instead of returning
+
+    public BookingProcessor(BookingPipeline pipeline, boolean continuous) {
+        this.pipeline = pipeline;
+        this.continuous = continuous;
+    }
+
+    public void run() {
+        BlockingQueue<BookingRequest> queue = pipeline.queue;
+        ShardedSeatStore store = pipeline.store;
+        List<BookingRequest> batch = new ArrayList<>(pipeline.batchSize);
+        int[] shardStart = new int[store.shardCount + 1];
+        BookingRequest[] byShard = new BookingRequest[pipeline.batchSize];
+        int untilSample = 1; // Requests left until the next one timed for the latency histograms
+
+        while (true) {
+            try {
+                if (queue.drainTo(batch, pipeline.batchSize) == 0) {
+                    if (!continuous || !pipeline.running) return;
+                    BookingRequest next = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (next == null) continue;
+                    batch.add(next);
+                }
+                BookingMetrics metrics = pipeline.metrics;
+
+                // Counting sort by shard, stable within each shard
+                Arrays.fill(shardStart, 0);
+                for (BookingRequest request : batch) shardStart[store.shardOf(request.eventId) + 1]++;
+                for (int s = 0; s < store.shardCount; s++) shardStart[s + 1] += shardStart[s];
+                for (BookingRequest request : batch) byShard[shardStart[store.shardOf(request.eventId)]++] = request;
+
+                // Book using the strategy selected when the batch started
+                LockingMode mode = pipeline.mode;
+                List<BookingResult> results = new ArrayList<>(batch.size());
+                int booked = 0, conflicts = 0, retries = 0;
+                for (int i = 0; i < batch.size(); i++) {
+                    BookingRequest request = byShard[i];
+                    BookingResult result;
+                    if (metrics != null && --untilSample == 0) {
+                        untilSample = BookingMetrics.SAMPLE_EVERY;
+                        long start = System.nanoTime();
+                        result = store.process(request, mode);
+                        metrics.recordBookingTime(System.nanoTime() - start);
+                        if (request.enqueuedNanos != 0) metrics.recordQueueWait(start - request.enqueuedNanos);
+                    } else {
+                        result = store.process(request, mode);
+                    }
+                    results.add(result);
+                    if (result.success) booked++;
+                    conflicts += result.conflicts;
+                    retries += result.retries;
+                    byShard[i] = null;
+                }
+
+                // One group commit covers the whole batch before confirming; if it fails, nothing
+                // in the batch is durable and every booking in it is reported as failed
+                if (!store.syncJournal()) {
+                    results.replaceAll(BookingResult::failed);
+                    booked = 0;
+                }
+                if (metrics != null) {
+                    metrics.recordBatch(mode, batch.size(), booked, conflicts, retries);
+                }
+                batch.clear();
+                pipeline.publish(results);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // A batch that blows up must not take the worker with it: report its requests
+                // as failed and carry on with the next batch
+                System.err.println("Booking batch failed: " + e);
+                Arrays.fill(byShard, null);
+                List<BookingResult> failed = new ArrayList<>(batch.size());
+                for (BookingRequest request : batch) failed.add(new BookingResult(request, false, 0, 0));
+                batch.clear();
+                pipeline.publish(failed);
+            }
+        }
+    }
+}
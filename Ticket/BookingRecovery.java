@@ -0,0 +1,148 @@
+package Ticket;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Snapshots and crash recovery for a journaled ShardedSeatStore.
+// A snapshot stores every event's seat count and each seat's booked state and version,
+// together with the journal sequence it covers. Recovery loads the latest snapshot and
+// replays only the journal records after it. A seat only ever moves to a higher version, so
+// records the snapshot already reflects, and records journaled out of order by racing
+// threads, are harmless to apply: the highest version per seat wins.
+// Snapshots are written from JournaledSeats, the durable journal replayed, never from the
+// live seats, which may already show bookings that are not yet durable.
+// The files are versioned; journals and snapshots from the older unversioned format are ignored.
+class BookingRecovery {
+    static final String JOURNAL_FILE = "bookings-v2.journal";
+    static final String SNAPSHOT_FILE = "seats-v2.snapshot";
+    static final int SNAPSHOT_MAGIC = 0x5EA75AF4;
+
+    // Rebuilds the store from dataDir and attaches a journal positioned after the last valid record
+    static ShardedSeatStore recover(Path dataDir, int shardCount) throws IOException {
+        return recover(dataDir, shardCount, true, BookingJournal.DEFAULT_COMMIT_INTERVAL_NANOS,
+            BookingJournal.DEFAULT_MAX_BATCH_RECORDS);
+    }
+
+    static ShardedSeatStore recover(Path dataDir, int shardCount, boolean fsync, long commitIntervalNanos,
+            int maxBatchRecords) throws IOException {
+        Files.createDirectories(dataDir);
+        ShardedSeatStore store = new ShardedSeatStore(shardCount);
+        List<long[]> snapshot = new ArrayList<>();
+        long fromRecord = readSnapshot(dataDir.resolve(SNAPSHOT_FILE), snapshot);
+        for (long[] stamps : snapshot) {
+            SeatManager event = store.event(store.addEvent(stamps.length));
+            for (int i = 0; i < stamps.length; i++) {
+                event.restore(i + 1, SeatManager.state(stamps[i]), SeatManager.version(stamps[i]));
+            }
+        }
+
+        long validRecords = BookingJournal.replay(dataDir.resolve(JOURNAL_FILE), fromRecord, (op, eventId, value, version) -> {
+            switch (op) {
+                case BookingJournal.OP_ADD_EVENT:
+                    // Events already in the snapshot are skipped; ids are assigned in order
+                    if (eventId == store.eventCount()) store.addEvent(value);
+                    break;
+                case BookingJournal.OP_BOOK:
+                    store.event(eventId).restore(value, SeatManager.BOOKED, version);
+                    break;
+                case BookingJournal.OP_CANCEL:
+                    store.event(eventId).restore(value, SeatManager.FREE, version);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal op " + op);
+            }
+        });
+
+        store.attachJournal(new BookingJournal(dataDir.resolve(JOURNAL_FILE),
+            Math.max(validRecords, fromRecord), fsync, commitIntervalNanos, maxBatchRecords));
+        return store;
+    }
+
+    // Snapshots the durable state of a journaled store and returns the journal sequence it covers
+    static long writeSnapshot(ShardedSeatStore store, Path dataDir) throws IOException {
+        JournaledSeats seats = new JournaledSeats(dataDir);
+        catchUp(seats, store);
+        return writeSnapshot(seats, dataDir);
+    }
+
+    // Writes a snapshot of the journaled seats atomically: temp file forced to disk, renamed
+    // over the old snapshot, then the directory forced so the rename survives a crash too
+    static long writeSnapshot(JournaledSeats seats, Path dataDir) throws IOException {
+        Path target = dataDir.resolve(SNAPSHOT_FILE);
+        Path temp = dataDir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(seats.covered);
+            out.writeInt(seats.events.size());
+            for (long[] stamps : seats.events) {
+                out.writeInt(stamps.length);
+                for (long stamp : stamps) out.writeLong(stamp);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(dataDir);
+        return seats.covered;
+    }
+
+    // Some platforms (Windows) cannot open a directory for syncing; the rename is then as
+    // durable as the file system makes it on its own
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported here
+        }
+    }
+
+    // Brings the journaled seats up to everything the store's journal has made durable
+    private static void catchUp(JournaledSeats seats, ShardedSeatStore store) throws IOException {
+        BookingJournal journal = store.journal;
+        if (journal != null) seats.catchUp(journal.durableSequence());
+    }
+
+    // Loads a snapshot's seat stamps, one array per event, and returns the journal sequence it covers
+    static long readSnapshot(Path snapshot, List<long[]> events) throws IOException {
+        if (!Files.exists(snapshot)) return 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a seat snapshot: " + snapshot);
+            long covered = in.readLong();
+            int eventCount = in.readInt();
+            for (int e = 0; e < eventCount; e++) {
+                long[] stamps = new long[in.readInt()];
+                for (int i = 0; i < stamps.length; i++) stamps[i] = in.readLong();
+                events.add(stamps);
+            }
+            return covered;
+        }
+    }
+
+    // Takes a snapshot every periodMillis on a daemon thread. Snapshots are built from the
+    // journal, not the live seats, so they only ever hold durable bookings.
+    static ScheduledExecutorService scheduleSnapshots(ShardedSeatStore store, Path dataDir, long periodMillis)
+            throws IOException {
+        JournaledSeats seats = new JournaledSeats(dataDir);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "seat-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                catchUp(seats, store);
+                writeSnapshot(seats, dataDir);
+            } catch (IOException e) {
+                System.err.println("Snapshot failed: " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+}
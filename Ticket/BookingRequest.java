@@ -0,0 +1,43 @@
+package Ticket;
+
+import java.util.Arrays;
+
+// Booking Request Object to hold user ID, event and desired seat number(s)
+class BookingRequest {
+    String userId;
+    int eventId;       // Event (venue/show) the seats belong to
+    int seatNumber;    // First (or only) seat requested
+    int[] seatNumbers; // All seats of a group booking, null for a single seat
+    long enqueuedNanos; // System.nanoTime() when queued, 0 if unknown (for queue-wait metrics)
+
+    public BookingRequest(String userId, int seatNumber) {
+        this(userId, 0, seatNumber);
+    }
+
+    public BookingRequest(String userId, int eventId, int seatNumber) {
+        this.userId = userId;
+        this.eventId = eventId;
+        this.seatNumber = seatNumber;
+    }
+
+    // Group booking: all seats are reserved together or not at all
+    public BookingRequest(String userId, int[] seatNumbers) {
+        this(userId, 0, seatNumbers);
+    }
+
+    public BookingRequest(String userId, int eventId, int[] seatNumbers) {
+        this.userId = userId;
+        this.eventId = eventId;
+        this.seatNumber = seatNumbers[0];
+        this.seatNumbers = seatNumbers.clone();
+    }
+
+    public boolean isGroup() {
+        return seatNumbers != null;
+    }
+
+    // Human-readable seat list for the log
+    String describeSeats() {
+        return isGroup() ? "Seats " + Arrays.toString(seatNumbers) : "Seat " + seatNumber;
+    }
+}
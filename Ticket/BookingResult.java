@@ -0,0 +1,21 @@
+package Ticket;
+
+// Outcome of a single booking request, including the optimistic retries and conflicts it hit
+class BookingResult {
+    final BookingRequest request;
+    final boolean success;
+    final int retries;
+    final int conflicts;
+
+    public BookingResult(BookingRequest request, boolean success, int retries, int conflicts) {
+        this.request = request;
+        this.success = success;
+        this.retries = retries;
+        this.conflicts = conflicts;
+    }
+
+    // The same request reported as failed, for bookings that took effect but never became durable
+    BookingResult failed() {
+        return success ? new BookingResult(request, false, retries, conflicts) : this;
+    }
+}
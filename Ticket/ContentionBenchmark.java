@@ -0,0 +1,96 @@
+package Ticket;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Contention benchmark comparing the pessimistic, optimistic and lock-free booking paths.
+// Every thread walks the whole venue starting at a different offset, so each seat is fought
+// over by all threads. A round ends when every thread has attempted every seat; the venue is
+// then reset and the next round starts.
+//
+// The hot-seat section repeats the run on a tiny venue so nearly every attempt races with
+// another thread, and reports the optimistic conflicts and retries per attempt.
+//
+// Usage: java Ticket.ContentionBenchmark [seats] [hotSeats] [millisPerRun]
+public class ContentionBenchmark {
+    static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+
+    public static void main(String[] args) throws InterruptedException {
+        int seats = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int hotSeats = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long millisPerRun = args.length > 2 ? Long.parseLong(args[2]) : 1_000;
+
+        System.out.printf("%d ms per run, %d cores%n",
+            millisPerRun, Runtime.getRuntime().availableProcessors());
+
+        // Warm up every path once before measuring
+        for (LockingMode mode : LockingMode.values()) run(mode, 4, seats, millisPerRun / 4);
+
+        System.out.printf("%nVenue of %d seats%n", seats);
+        report(seats, millisPerRun);
+        System.out.printf("%nHot seats: %d seats%n", hotSeats);
+        report(hotSeats, millisPerRun);
+    }
+
+    static void report(int seats, long millisPerRun) throws InterruptedException {
+        System.out.printf("%-12s %8s %16s %14s %14s%n",
+            "Mode", "Threads", "Attempts/sec", "Conflicts/op", "Retries/op");
+        for (LockingMode mode : LockingMode.values()) {
+            for (int threads : THREAD_COUNTS) {
+                Result r = run(mode, threads, seats, millisPerRun);
+                System.out.printf("%-12s %8d %,16.0f %14.5f %14.5f%n", mode.label, threads,
+                    r.attempts / r.seconds, (double) r.conflicts / r.attempts, (double) r.retries / r.attempts);
+            }
+        }
+    }
+
+    static class Result {
+        long attempts, conflicts, retries;
+        double seconds;
+    }
+
+    // Runs rounds on persistent worker threads until the time budget is spent
+    static Result run(LockingMode mode, int threads, int seats, long millis) throws InterruptedException {
+        SeatManager manager = new SeatManager(seats);
+        AtomicBoolean stop = new AtomicBoolean();
+        long[] rounds = new long[1];
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+
+        // Barrier action runs once per round while every worker is parked
+        CyclicBarrier barrier = new CyclicBarrier(threads, () -> {
+            manager.reset();
+            rounds[0]++;
+            if (System.nanoTime() >= deadline) stop.set(true);
+        });
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = (int) ((long) t * seats / threads);
+            workers[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    while (!stop.get()) {
+                        for (int i = 0; i < seats; i++) {
+                            manager.bookSeat((offset + i) % seats + 1, mode);
+                        }
+                        barrier.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+
+        Result r = new Result();
+        r.seconds = (System.nanoTime() - start) / 1e9;
+        r.attempts = (rounds[0] - 1) * threads * (long) seats; // First trip only releases the start
+        r.conflicts = manager.getOptimisticConflicts();
+        r.retries = manager.getOptimisticRetries();
+        return r;
+    }
+}
@@ -0,0 +1,120 @@
+package Ticket;
+
+// Segment tree over the seats of one event that tracks runs of free seats.
+// Each node keeps its free count, the free run touching its left edge (prefix), the one
+// touching its right edge (suffix) and the longest run inside it (best). Runs never join
+// across a row boundary, so "contiguous" always means side by side in the same row.
+//
+// Updates are deferred: a booking thread only marks its seat in a lock-free dirty-seat set
+// (see SeatChangeFeed) and never touches the tree or its lock. Queries take the lock, drain
+// the marked seats and re-read each one from the SeatManager before answering, so when two
+// threads change a seat back to back the index still ends up matching its final state.
+// A query costs O(changes since the last query * log seats + seats / 4096).
+class FreeSeatIndex {
+    final SeatManager seats;
+    final SeatChangeFeed pending; // Seats changed since the tree was last brought up to date
+    final int seatsPerRow;
+    final int size;      // Leaves, rounded up to a power of two
+    final int[] free;    // Free seats under the node
+    final int[] prefix;  // Free run starting at the node's first seat
+    final int[] suffix;  // Free run ending at the node's last seat
+    final int[] best;    // Longest free run within the node
+    final int[] length;  // Real seats under the node (padding leaves count as 0)
+
+    FreeSeatIndex(SeatManager seats, int seatsPerRow) {
+        if (seatsPerRow < 1) throw new IllegalArgumentException("seatsPerRow must be >= 1");
+        this.seats = seats;
+        this.seatsPerRow = seatsPerRow;
+        int n = 1;
+        while (n < seats.totalSeats) n <<= 1;
+        this.size = n;
+        this.pending = new SeatChangeFeed(seats.totalSeats);
+        free = new int[2 * n];
+        prefix = new int[2 * n];
+        suffix = new int[2 * n];
+        best = new int[2 * n];
+        length = new int[2 * n];
+        rebuild();
+    }
+
+    // Rebuilds every node from the current seat states in O(seats)
+    synchronized void rebuild() {
+        pending.drain(seat -> { }); // Everything is re-read below; later marks stay pending
+        for (int i = 0; i < size; i++) {
+            int leaf = size + i;
+            length[leaf] = i < seats.totalSeats ? 1 : 0;
+            setLeaf(leaf, i < seats.totalSeats && seats.getState(i + 1) == SeatManager.FREE);
+        }
+        for (int node = size - 1; node >= 1; node--) pull(node);
+    }
+
+    // Notes that a seat changed; called on the booking thread, lock-free
+    void mark(int seatNumber) {
+        pending.mark(seatNumber);
+    }
+
+    synchronized int countFree() {
+        pending.drain(this::refresh);
+        return free[1];
+    }
+
+    // First seat of the front-most, left-most run of n free seats in one row, or -1
+    synchronized int findContiguous(int n) {
+        pending.drain(this::refresh);
+        if (n < 1 || best[1] < n) return -1;
+        int node = 1, lo = 1, hi = size;
+        while (node < size) {
+            int mid = (lo + hi) >>> 1;
+            int left = 2 * node, right = left + 1;
+            if (best[left] >= n) {
+                node = left;
+                hi = mid;
+            } else if (joins(mid) && suffix[left] + prefix[right] >= n) {
+                return mid - suffix[left] + 1;
+            } else {
+                node = right;
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    // Re-reads one seat and fixes the path above it; caller holds the lock
+    private void refresh(int seatNumber) {
+        int node = size + seatNumber - 1;
+        setLeaf(node, seats.getState(seatNumber) == SeatManager.FREE);
+        for (node >>= 1; node >= 1; node >>= 1) pull(node);
+    }
+
+    private void setLeaf(int leaf, boolean isFree) {
+        int v = isFree ? 1 : 0;
+        free[leaf] = v;
+        prefix[leaf] = v;
+        suffix[leaf] = v;
+        best[leaf] = v;
+    }
+
+    // Seat `last` and seat `last + 1` are in the same row
+    private boolean joins(int last) {
+        return last % seatsPerRow != 0;
+    }
+
+    private void pull(int node) {
+        int left = 2 * node, right = left + 1;
+        length[node] = length[left] + length[right];
+        free[node] = free[left] + free[right];
+
+        // Last seat covered by the left child, from the node's position in the tree
+        int level = 31 - Integer.numberOfLeadingZeros(node);
+        int span = size >> level;
+        int lastLeft = (node - (1 << level)) * span + span / 2;
+        boolean joined = joins(lastLeft);
+
+        prefix[node] = prefix[left] == length[left] && joined && length[left] > 0
+            ? prefix[left] + prefix[right] : prefix[left];
+        suffix[node] = suffix[right] == length[right] && joined && length[right] > 0
+            ? suffix[right] + suffix[left] : suffix[right];
+        int across = joined ? suffix[left] + prefix[right] : 0;
+        best[node] = Math.max(Math.max(best[left], best[right]), across);
+    }
+}
@@ -0,0 +1,106 @@
+package Ticket;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Group booking throughput while single-seat bookers compete for the same seats.
+// Group threads book 2-8 adjacent seats at random positions; single threads book random
+// seats in the given mode. Each round every thread makes a fixed number of attempts, then
+// the venue is checked (no seat may be left PENDING) and reset.
+//
+// Usage: java Ticket.GroupBookingBenchmark [seats] [millisPerRun] [singleMode]
+public class GroupBookingBenchmark {
+    static final int[][] THREAD_MIXES = {{1, 0}, {1, 1}, {4, 4}, {8, 8}, {16, 16}, {32, 32}};
+    static final int ATTEMPTS_PER_ROUND = 200;
+
+    public static void main(String[] args) throws InterruptedException {
+        int seats = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        long millisPerRun = args.length > 1 ? Long.parseLong(args[1]) : 1_000;
+        LockingMode singleMode = args.length > 2 ? LockingMode.valueOf(args[2]) : LockingMode.LOCK_FREE;
+
+        System.out.printf("Seats: %d, singles: %s, %d ms per run, %d cores%n",
+            seats, singleMode.label, millisPerRun, Runtime.getRuntime().availableProcessors());
+        run(seats, 4, 4, singleMode, millisPerRun / 4); // Warm up
+
+        System.out.printf("%8s %8s %14s %10s %14s %10s %8s%n",
+            "Groups", "Singles", "Groups/sec", "Group ok", "Singles/sec", "Single ok", "Broken");
+        for (int[] mix : THREAD_MIXES) {
+            run(seats, mix[0], mix[1], singleMode, millisPerRun).print(mix[0], mix[1]);
+        }
+    }
+
+    static class Result {
+        final LongAdder groupAttempts = new LongAdder(), groupSuccesses = new LongAdder();
+        final LongAdder singleAttempts = new LongAdder(), singleSuccesses = new LongAdder();
+        long brokenRounds; // Rounds that ended with a seat still PENDING
+        double seconds;
+
+        void print(int groups, int singles) {
+            long ga = groupAttempts.sum(), sa = singleAttempts.sum();
+            System.out.printf("%8d %8d %,14.0f %9.1f%% %,14.0f %9.1f%% %8d%n", groups, singles,
+                ga / seconds, ga == 0 ? 0 : 100.0 * groupSuccesses.sum() / ga,
+                sa / seconds, sa == 0 ? 0 : 100.0 * singleSuccesses.sum() / sa, brokenRounds);
+        }
+    }
+
+    static Result run(int seats, int groupThreads, int singleThreads, LockingMode singleMode, long millis)
+            throws InterruptedException {
+        SeatManager manager = new SeatManager(seats);
+        Result result = new Result();
+        AtomicBoolean stop = new AtomicBoolean();
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        int threads = groupThreads + singleThreads;
+
+        CyclicBarrier barrier = new CyclicBarrier(threads, () -> {
+            for (int i = 0; i < seats; i++) {
+                if (SeatManager.state(manager.seatStamps.get(i)) == SeatManager.PENDING) {
+                    result.brokenRounds++;
+                    break;
+                }
+            }
+            manager.reset();
+            if (System.nanoTime() >= deadline) stop.set(true);
+        });
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            boolean group = t < groupThreads;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int[][] groupsBySize = new int[9][];
+                for (int size = 2; size <= 8; size++) groupsBySize[size] = new int[size];
+                try {
+                    barrier.await();
+                    while (!stop.get()) {
+                        for (int a = 0; a < ATTEMPTS_PER_ROUND; a++) {
+                            if (group) {
+                                int[] seatsWanted = groupsBySize[2 + random.nextInt(7)];
+                                int first = 1 + random.nextInt(seats - seatsWanted.length + 1);
+                                for (int k = 0; k < seatsWanted.length; k++) seatsWanted[k] = first + k;
+                                result.groupAttempts.increment();
+                                if (manager.bookSeats(seatsWanted)) result.groupSuccesses.increment();
+                            } else {
+                                result.singleAttempts.increment();
+                                if (manager.bookSeat(1 + random.nextInt(seats), singleMode)) {
+                                    result.singleSuccesses.increment();
+                                }
+                            }
+                        }
+                        barrier.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+        result.seconds = (System.nanoTime() - start) / 1e9;
+        return result;
+    }
+}
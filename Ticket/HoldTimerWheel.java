@@ -0,0 +1,152 @@
+package Ticket;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hierarchical timer wheel for seat-hold expiry.
+// Five levels of 64 slots each; a slot on level L spans 64^L ticks. A timeout is filed on the
+// lowest level whose range covers its deadline and is moved one level down each time the
+// wheel above it turns over, so it is touched at most LEVELS times in its life and a tick
+// costs O(1) plus the timeouts that actually fall due. Any thread may schedule: new timeouts
+// go through a lock-free inbox that the single ticking thread drains into the wheel.
+class HoldTimerWheel {
+    static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    static final int LEVELS = 5; // 64^5 ticks: over 30 years at 1 ms per tick
+
+    static final long DEFAULT_TICK_MILLIS = 10;
+
+    // Called when a timeout falls due; the token lets the target ignore stale timeouts
+    interface Expirable {
+        void expire(int id, long token);
+    }
+
+    static final class Timeout {
+        final Expirable target;
+        final int id;
+        final long token;
+        final long deadlineTick;
+        Timeout next; // Intrusive slot list
+
+        Timeout(Expirable target, int id, long token, long deadlineTick) {
+            this.target = target;
+            this.id = id;
+            this.token = token;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    final long tickMillis;
+    final long originNanos = System.nanoTime();
+    private final Timeout[][] slots = new Timeout[LEVELS][WHEEL_SIZE]; // Owned by the ticking thread
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicLong outstanding = new AtomicLong();
+    private long currentTick; // Owned by the ticking thread
+    private Thread ticker;
+
+    public HoldTimerWheel(long tickMillis) {
+        if (tickMillis < 1) throw new IllegalArgumentException("tickMillis must be >= 1");
+        this.tickMillis = tickMillis;
+    }
+
+    // Milliseconds on the wheel's own clock
+    public long nowMillis() {
+        return (System.nanoTime() - originNanos) / 1_000_000;
+    }
+
+    // Schedules target.expire(id, token) at the given time on the wheel's clock
+    public void schedule(Expirable target, int id, long token, long deadlineMillis) {
+        // Round up so a timeout never fires early
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        incoming.add(new Timeout(target, id, token, deadlineTick));
+        outstanding.incrementAndGet();
+    }
+
+    // Timeouts scheduled but not yet fired
+    public long outstanding() {
+        return outstanding.get();
+    }
+
+    // Starts the daemon thread that turns the wheel in real time
+    public synchronized void start() {
+        if (ticker != null) return;
+        ticker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                advanceTo(nowMillis());
+                try {
+                    Thread.sleep(tickMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "hold-timer-wheel");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) ticker.interrupt();
+        ticker = null;
+    }
+
+    // Turns the wheel up to the given time, firing every timeout that is due.
+    // Must only be called from one thread at a time (the ticker, or a test driving the clock).
+    public void advanceTo(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            drainIncoming();
+            Timeout due = slots[0][(int) (currentTick & WHEEL_MASK)];
+            slots[0][(int) (currentTick & WHEEL_MASK)] = null;
+            fire(due);
+        }
+    }
+
+    // When a level turns over, redistribute its current slot onto the levels below
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) return;
+            int slot = (int) ((currentTick >>> shift) & WHEEL_MASK);
+            Timeout t = slots[level][slot];
+            slots[level][slot] = null;
+            while (t != null) {
+                Timeout next = t.next;
+                place(t);
+                t = next;
+            }
+        }
+    }
+
+    private void drainIncoming() {
+        Timeout t;
+        while ((t = incoming.poll()) != null) place(t);
+    }
+
+    // Files a timeout on the lowest level that covers its deadline
+    private void place(Timeout t) {
+        long delta = t.deadlineTick - currentTick;
+        if (delta < 0) {
+            t.next = null;
+            fire(t);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) level++;
+        int slot = (int) ((t.deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        t.next = slots[level][slot];
+        slots[level][slot] = t;
+    }
+
+    private void fire(Timeout t) {
+        while (t != null) {
+            Timeout next = t.next;
+            t.next = null;
+            outstanding.decrementAndGet();
+            t.target.expire(t.id, t.token);
+            t = next;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package Ticket;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Measures the BookingJournal group-commit tradeoff and recovery speed.
+//
+// Commit section: several threads each append a booking and wait for it to be durable, in a
+// loop, for every commit window. A longer window means fewer fsyncs and more records per
+// commit (throughput) but a longer wait per booking (latency).
+//
+// Recovery section: writes a journal of the given number of records, then times
+// BookingRecovery.recover() rebuilding the store from it.
+//
+// Usage: java Ticket.JournalBenchmark [dir] [threads] [millisPerRun] [recoveryRecords]
+public class JournalBenchmark {
+    static final long[] COMMIT_WINDOWS_NANOS = {0, 50_000, 200_000, 1_000_000, 5_000_000};
+    static final int RECOVERY_SEATS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Paths.get(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"), "journal-bench");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        long millisPerRun = args.length > 2 ? Long.parseLong(args[2]) : 1_000;
+        long recoveryRecords = args.length > 3 ? Long.parseLong(args[3]) : 10_000_000;
+
+        System.out.printf("Group commit with fsync, %d threads, %d ms per run%n", threads, millisPerRun);
+        System.out.printf("%12s %14s %12s %12s %14s%n",
+            "Window (us)", "Records/sec", "Avg (us)", "p99 (us)", "Records/fsync");
+        for (long window : COMMIT_WINDOWS_NANOS) commitRun(dir, threads, millisPerRun, window);
+
+        System.out.printf("%nRecovery of %,d records%n", recoveryRecords);
+        recoveryRun(dir, recoveryRecords);
+        deleteRecursively(dir);
+    }
+
+    static void commitRun(Path dir, int threads, long millis, long windowNanos) throws Exception {
+        deleteRecursively(dir);
+        Files.createDirectories(dir);
+        BookingJournal journal = new BookingJournal(dir.resolve(BookingRecovery.JOURNAL_FILE), 0, true,
+            windowNanos, BookingJournal.DEFAULT_MAX_BATCH_RECORDS);
+
+        long[][] latencies = new long[threads][];
+        int[] counts = new int[threads];
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                long[] samples = new long[1 << 16];
+                int n = 0;
+                try {
+                    for (int seat = 1; System.nanoTime() < deadline; seat++) {
+                        long start = System.nanoTime();
+                        journal.awaitDurable(journal.append(BookingJournal.OP_BOOK, id, seat));
+                        if (n == samples.length) samples = Arrays.copyOf(samples, n * 2);
+                        samples[n++] = System.nanoTime() - start;
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                latencies[id] = samples;
+                counts[id] = n;
+            });
+        }
+
+        long start = System.nanoTime();
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        journal.close();
+
+        int total = 0;
+        for (int n : counts) total += n;
+        long[] all = new long[total];
+        int at = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], 0, all, at, counts[t]);
+            at += counts[t];
+        }
+        Arrays.sort(all);
+        double avgMicros = Arrays.stream(all).average().orElse(0) / 1_000;
+        double p99Micros = all.length == 0 ? 0 : all[(int) (all.length * 0.99)] / 1_000.0;
+
+        System.out.printf("%12d %,14.0f %12.1f %12.1f %14.1f%n", windowNanos / 1_000,
+            total / seconds, avgMicros, p99Micros, (double) total / Math.max(1, journal.getCommits()));
+    }
+
+    static void recoveryRun(Path dir, long records) throws Exception {
+        deleteRecursively(dir);
+        Files.createDirectories(dir);
+
+        // Build the journal through the normal write path, without fsync to keep setup quick
+        long writeStart = System.nanoTime();
+        ShardedSeatStore source = BookingRecovery.recover(dir, 1, false, 0, 1 << 16);
+        source.addEvent(RECOVERY_SEATS);
+        BookingJournal journal = source.journal;
+        Random random = new Random(7);
+        for (long r = 1; r < records; r++) {
+            int op = random.nextInt(4) == 0 ? BookingJournal.OP_CANCEL : BookingJournal.OP_BOOK;
+            journal.append(op, 0, 1 + random.nextInt(RECOVERY_SEATS), r); // Rising versions: last record wins
+        }
+        journal.close();
+        System.out.printf("  wrote %,d records (%,d MB) in %.2f s%n", records,
+            Files.size(dir.resolve(BookingRecovery.JOURNAL_FILE)) >> 20, (System.nanoTime() - writeStart) / 1e9);
+
+        long start = System.nanoTime();
+        ShardedSeatStore recovered = BookingRecovery.recover(dir, 1, false, 0, 1 << 16);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        recovered.journal.close();
+
+        int booked = 0;
+        SeatManager event = recovered.event(0);
+        for (int seat = 1; seat <= event.totalSeats; seat++) if (event.isBooked(seat)) booked++;
+        System.out.printf("  recovered in %.2f s (%,.0f records/sec), %,d seats booked%n",
+            seconds, records / seconds, booked);
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
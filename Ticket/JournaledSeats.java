@@ -0,0 +1,48 @@
+package Ticket;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Seat state exactly as the journal has made it durable, kept apart from the live store so a
+// snapshot can never contain a booking or cancellation that a crash could still undo.
+// It starts from the last snapshot and catches up by replaying the durable journal records
+// after it, keeping the highest version per seat just as recovery does. Costs 8 bytes a seat.
+class JournaledSeats {
+    final Path journalPath;
+    final List<long[]> events = new ArrayList<>(); // Seat stamps per event, FREE or BOOKED only
+    long covered; // Journal records applied so far
+
+    JournaledSeats(Path dataDir) throws IOException {
+        this.journalPath = dataDir.resolve(BookingRecovery.JOURNAL_FILE);
+        this.covered = BookingRecovery.readSnapshot(dataDir.resolve(BookingRecovery.SNAPSHOT_FILE), events);
+    }
+
+    // Applies the records between covered and durableSequence. Group bookings are appended
+    // under one lock and committed in one batch, so a durable boundary never splits them.
+    void catchUp(long durableSequence) throws IOException {
+        if (durableSequence <= covered) return;
+        covered = Math.max(covered, BookingJournal.replay(journalPath, covered, durableSequence, this::apply));
+    }
+
+    private void apply(int op, int eventId, int value, long version) {
+        switch (op) {
+            case BookingJournal.OP_ADD_EVENT:
+                if (eventId == events.size()) events.add(new long[value]);
+                break;
+            case BookingJournal.OP_BOOK:
+                apply(events.get(eventId), value - 1, SeatManager.BOOKED, version);
+                break;
+            case BookingJournal.OP_CANCEL:
+                apply(events.get(eventId), value - 1, SeatManager.FREE, version);
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal op " + op);
+        }
+    }
+
+    private static void apply(long[] stamps, int i, int seatState, long version) {
+        if (version > SeatManager.version(stamps[i])) stamps[i] = version << 2 | seatState;
+    }
+}
@@ -0,0 +1,85 @@
+package Ticket;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size log-linear latency histogram in the style of HdrHistogram.
+// Values below 2^SUB_BUCKET_BITS nanoseconds get exact buckets; above that each power of two
+// is split into 2^(SUB_BUCKET_BITS - 1) equal buckets, so any recorded value is within about
+// 3% of its bucket. Recording is one array increment with no allocation or locking.
+class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;       // Exact buckets below this value
+    static final int HALF = SUB_BUCKETS / 2;                   // Buckets per power of two above it
+    static final int MAX_EXPONENT = 44;                        // ~4.8 hours in nanoseconds
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * HALF;
+
+    final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    final LongAdder total = new LongAdder();
+    final LongAdder sum = new LongAdder();
+    final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) Math.max(0, value);
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        long sub = Math.min((value >>> (exponent - SUB_BUCKET_BITS + 1)) - HALF, HALF - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * HALF + (int) sub;
+    }
+
+    // Highest value that lands in the bucket
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = (bucket - SUB_BUCKETS) / HALF + SUB_BUCKET_BITS;
+        long sub = (bucket - SUB_BUCKETS) % HALF;
+        int shift = exponent - SUB_BUCKET_BITS + 1;
+        return ((HALF + sub + 1) << shift) - 1;
+    }
+
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    // Records `count` observations of the same value
+    public void record(long nanos, long count) {
+        if (count <= 0) return;
+        counts.addAndGet(bucketOf(nanos), count);
+        total.add(count);
+        sum.add(nanos * count);
+        max.accumulate(nanos);
+    }
+
+    // Consistent-enough copy of the bucket counts for percentile queries
+    public long[] copyCounts() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        return copy;
+    }
+
+    // Value at the given percentile (0-100) of a copied count array
+    static long percentile(long[] counts, double percentile) {
+        long n = 0;
+        for (long c : counts) n += c;
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return bucketUpperBound(i);
+        }
+        return bucketUpperBound(counts.length - 1);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public double mean() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    public long max() {
+        return max.get();
+    }
+}
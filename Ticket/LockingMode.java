@@ -0,0 +1,20 @@
+package Ticket;
+
+// Concurrency control strategies selectable from the GUI
+enum LockingMode {
+    OPTIMISTIC("Optimistic"),
+    PESSIMISTIC("Pessimistic"),
+    LOCK_FREE("Lock-Free");
+
+    final String label;
+
+    LockingMode(String label) {
+        this.label = label;
+    }
+
+    // Cycles to the next mode for the toggle button
+    LockingMode next() {
+        LockingMode[] modes = values();
+        return modes[(ordinal() + 1) % modes.length];
+    }
+}
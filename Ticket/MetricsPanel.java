@@ -0,0 +1,51 @@
+package Ticket;
+
+import java.awt.*;
+import javax.swing.*;
+
+// Live performance panel: success rate, conflicts and retries per locking mode, plus queue
+// wait and booking-time percentiles. Polls a metrics snapshot on a Swing timer.
+final class MetricsPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    static final int REFRESH_MILLIS = 500;
+    static final String[] COLUMNS = {"Mode", "Attempts", "Success", "Conflicts", "Retries"};
+
+    final transient BookingMetrics metrics;
+    final JLabel[][] cells = new JLabel[LockingMode.values().length][COLUMNS.length];
+    final JLabel latencyLabel = new JLabel();
+    final Timer refreshTimer;
+
+    MetricsPanel(BookingMetrics metrics) {
+        super(new BorderLayout());
+        this.metrics = metrics;
+        setBorder(BorderFactory.createTitledBorder("📊 Performance"));
+
+        JPanel table = new JPanel(new GridLayout(cells.length + 1, COLUMNS.length, 8, 2));
+        for (String column : COLUMNS) table.add(new JLabel(column));
+        for (int m = 0; m < cells.length; m++) {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                cells[m][c] = new JLabel(c == 0 ? LockingMode.values()[m].label : "-");
+                table.add(cells[m][c]);
+            }
+        }
+        add(table, BorderLayout.CENTER);
+        add(latencyLabel, BorderLayout.SOUTH);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, _ -> refresh());
+        refreshTimer.start();
+        refresh();
+    }
+
+    void refresh() {
+        BookingMetrics.MetricsSnapshot s = metrics.snapshot();
+        for (int m = 0; m < cells.length; m++) {
+            cells[m][1].setText(String.valueOf(s.attempts[m]));
+            cells[m][2].setText(String.format("%.1f%%", 100 * s.successRate(m)));
+            cells[m][3].setText(String.format("%d (%.2f%%)", s.conflicts[m], 100 * s.conflictRate(m)));
+            cells[m][4].setText(String.format("%d (%.2f%%)", s.retries[m], 100 * s.retryRate(m)));
+        }
+        latencyLabel.setText(String.format(
+            "Queue wait p50 %.1f µs · p99 %.1f µs · max %.1f µs   Booking p50 %d ns · p99 %d ns",
+            s.queueP50 / 1e3, s.queueP99 / 1e3, s.queueMax / 1e3, s.bookingP50, s.bookingP99));
+    }
+}
@@ -48,158 +48,120 @@
 package Ticket;
 
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.List;
 import java.util.concurrent.*;
 import javax.swing.*;
 
-// Booking Request Object to hold user ID and desired seat number
-class BookingRequest {
-    String userId;
-    int seatNumber;
-
-    public BookingRequest(String userId, int seatNumber) {
-        this.userId = userId;
-        this.seatNumber = seatNumber;
-    }
-}
-
-// Seat Manager handles booking logic with both pessimistic and optimistic locking
-class SeatManager {
-    Map<Integer, Boolean> seats = new ConcurrentHashMap<>(); // Map of seat number to booking status
-    final Object lock = new Object(); // Shared lock object for synchronization
-
-    public SeatManager(int totalSeats) {
-        // Initialize all seats as unbooked
-        for (int i = 1; i <= totalSeats; i++) seats.put(i, false);
-    }
-
-    // Pessimistic locking: Lock is acquired before checking and booking
-    public boolean bookSeatPessimistic(int seatNumber) {
-        synchronized (lock) {
-            if (!seats.get(seatNumber)) {
-                seats.put(seatNumber, true); // Book seat
-                return true;
-            }
-            return false; // Seat already booked
-        }
-    }
-
-    // Optimistic locking: Try without locking, and retry under lock if necessary
-    public boolean bookSeatOptimistic(int seatNumber) {
-        if (!seats.get(seatNumber)) {
-            if (Math.random() > 0.2) { // Simulate 80% chance of no conflict
-                synchronized (lock) {
-                    if (!seats.get(seatNumber)) {
-                        seats.put(seatNumber, true);
-                        return true;
-                    }
-                }
-            }
-        }
-        return false; // Booking failed due to conflict or seat already booked
-    }
-
-    // Returns current seat booking status
-    public Map<Integer, Boolean> getSeats() {
-        return seats;
-    }
-}
-
-// Runnable processor that handles booking requests from a queue
-class BookingProcessor implements Runnable {
-    BlockingQueue<BookingRequest> queue;
-    SeatManager manager;
-    boolean useOptimistic;
-    JTextArea logArea;
-    Runnable updateDisplay;
-
-    public BookingProcessor(
-        BlockingQueue<BookingRequest> queue,
-        SeatManager manager,
-        boolean useOptimistic,
-        JTextArea logArea,
-        Runnable updateDisplay
-    ) {
-        this.queue = queue;
-        this.manager = manager;
-        this.useOptimistic = useOptimistic;
-        this.logArea = logArea;
-        this.updateDisplay = updateDisplay;
-    }
-
-    public void run() {
-        while (!queue.isEmpty()) {
-            try {
-                BookingRequest request = queue.take(); // Take request from queue
-
-                // Book seat using selected strategy
-                boolean success = useOptimistic
-                    ? manager.bookSeatOptimistic(request.seatNumber)
-                    : manager.bookSeatPessimistic(request.seatNumber);
-
-                // Generate result message
-                String msg = "User " + request.userId + " tried Seat " + request.seatNumber +
-                    " → " + (success ? "✅ Booked" : "❌ Failed") + "\n";
-
-                // Update log and seat display in UI thread
-                SwingUtilities.invokeLater(() -> {
-                    logArea.append(msg);
-                    updateDisplay.run();
-                });
-
-                Thread.sleep(200); // Simulate processing delay
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-    }
-}
-
 // Main GUI class for the Online Ticket Booking System
 public class OnlineTicketing extends JFrame {
-    SeatManager seatManager = new SeatManager(40); // 40 total seats
+    static final Path DATA_DIR = Paths.get(System.getProperty("ticket.dataDir", "ticket-data"));
+    static final long SNAPSHOT_PERIOD_MILLIS = 60_000;
+    static final int SEATS_PER_ROW = 8;
+    static final long METRICS_DUMP_MILLIS = 10_000;
+    static final String READ_ONLY_NOTE = "⚠️ Booking journal failed, seats are read-only until restart";
+
+    final transient ShardedSeatStore seatStore;
+    SeatManager seatManager;
     BlockingQueue<BookingRequest> bookingQueue = new LinkedBlockingQueue<>();
-    boolean useOptimisticLocking = true; // Default locking strategy
+    transient BookingPipeline pipeline;
+    // Cancellations and best-seat bookings wait for the journal, so they run here, not on the EDT
+    final transient ExecutorService seatTasks = Executors.newSingleThreadExecutor();
+    LockingMode lockingMode = LockingMode.OPTIMISTIC; // Default locking strategy
 
-    JTextArea statusArea = new JTextArea(20, 30); // Displays seat status
+    SeatGridPanel seatGrid;                       // Displays seat status
     JTextArea logArea = new JTextArea(10, 30);    // Displays booking log
+    final StringBuilder pendingLog = new StringBuilder(); // Log lines waiting for the next frame
 
-    public OnlineTicketing() {
+    // Builds the GUI around a recovered store that already has its event
+    public OnlineTicketing(ShardedSeatStore seatStore) {
         super("🎟️ Online Ticket Booking System");
 
-        statusArea.setEditable(false);
+        this.seatStore = seatStore;
+        seatManager = seatStore.event(0);
+        seatManager.enableFreeSeatIndex(SEATS_PER_ROW);
+        pipeline = new BookingPipeline(bookingQueue, seatStore, 4); // 4 booking workers
+        pipeline.metrics.scheduleDump(DATA_DIR.resolve("metrics.csv"), METRICS_DUMP_MILLIS, false);
+
+        // Seat chart repaints only changed seats, and the log is flushed on the same frame timer
+        seatGrid = new SeatGridPanel(seatManager, seatManager.enableChangeFeed(), SEATS_PER_ROW, 32);
+        seatGrid.onFrame = this::flushLog;
         logArea.setEditable(false);
 
         // Buttons and label for controls
         JButton simulateBtn = new JButton("Simulate Bookings");
         JButton processBtn = new JButton("Process Bookings");
         JButton toggleBtn = new JButton("Toggle Locking");
+        JButton cancelBtn = new JButton("Cancel Seat");
+        JButton bestBtn = new JButton("Best Seats");
         JLabel lockLabel = new JLabel("🔒 Mode: Optimistic");
 
-        // Simulate 10 random booking requests
+        // Simulate 10 random booking requests; every third user books 2-4 adjacent seats
         simulateBtn.addActionListener(_ -> {
             for (int i = 1; i <= 10; i++) {
-                int seat = (int)(Math.random() * 40) + 1;
-                bookingQueue.add(new BookingRequest("User" + i, seat));
+                if (i % 3 == 0) {
+                    int size = 2 + (int)(Math.random() * 3);
+                    int first = (int)(Math.random() * (40 - size + 1)) + 1;
+                    int[] group = new int[size];
+                    for (int k = 0; k < size; k++) group[k] = first + k;
+                    queueRequest(new BookingRequest("User" + i, group));
+                } else {
+                    int seat = (int)(Math.random() * 40) + 1;
+                    queueRequest(new BookingRequest("User" + i, seat));
+                }
             }
         });
 
-        // Start booking processor thread
+        // The GUI subscribes to batch results: one UI update per processed batch
+        pipeline.addListener(this::showResults);
+
+        // Hand the queued requests to the worker pool
         processBtn.addActionListener(_ -> {
-            new Thread(new BookingProcessor(
-                bookingQueue,
-                seatManager,
-                useOptimisticLocking,
-                logArea,
-                this::refreshSeatDisplay
-            )).start();
+            pipeline.setMode(lockingMode);
+            pipeline.processPending();
         });
 
-        // Toggle locking mode between Optimistic and Pessimistic
+        // Cycle locking mode: Optimistic -> Pessimistic -> Lock-Free
         toggleBtn.addActionListener(_ -> {
-            useOptimisticLocking = !useOptimisticLocking;
-            lockLabel.setText("🔒 Mode: " +
-                (useOptimisticLocking ? "Optimistic" : "Pessimistic"));
+            lockingMode = lockingMode.next();
+            lockLabel.setText("🔒 Mode: " + lockingMode.label);
+        });
+
+        // Cancel (refund) a booked seat; it goes straight back to the free pool
+        cancelBtn.addActionListener(_ -> {
+            String input = JOptionPane.showInputDialog(this, "Seat number to cancel:");
+            if (input == null) return;
+            try {
+                int seat = Integer.parseInt(input.trim());
+                if (seat < 1 || seat > seatManager.totalSeats) throw new NumberFormatException();
+                seatTasks.execute(() -> {
+                    boolean cancelled = seatStore.cancelSeat(0, seat);
+                    log("Seat " + seat + " → " + (cancelled ? "↩️ Cancelled" : failure("❌ Not booked")));
+                });
+            } catch (NumberFormatException e) {
+                logArea.append("Invalid seat: " + input + "\n");
+            }
+        });
+
+        // Book the best N adjacent seats in one row, found through the free-seat index
+        bestBtn.addActionListener(_ -> {
+            String input = JOptionPane.showInputDialog(this, "How many adjacent seats?");
+            if (input == null) return;
+            try {
+                int n = Integer.parseInt(input.trim());
+                if (n < 1) throw new NumberFormatException();
+                seatTasks.execute(() -> {
+                    int[] run = seatStore.bookBestContiguous(0, n);
+                    log(run != null
+                        ? "Best seats " + Arrays.toString(run) + " → ✅ Booked"
+                        : failure("No " + n + " adjacent seats free (" + seatManager.countAvailable() + " seats left)"));
+                });
+            } catch (NumberFormatException e) {
+                logArea.append("Invalid count: " + input + "\n");
+            }
         });
 
         // Organize GUI layout
@@ -207,35 +169,83 @@ public class OnlineTicketing extends JFrame {
         controlPanel.add(simulateBtn);
         controlPanel.add(processBtn);
         controlPanel.add(toggleBtn);
+        controlPanel.add(cancelBtn);
+        controlPanel.add(bestBtn);
         controlPanel.add(lockLabel);
 
         JPanel textPanel = new JPanel(new GridLayout(2, 1));
-        textPanel.add(new JScrollPane(statusArea));
+        textPanel.add(new JScrollPane(seatGrid));
         textPanel.add(new JScrollPane(logArea));
 
         add(controlPanel, BorderLayout.NORTH);
         add(textPanel, BorderLayout.CENTER);
+        add(new MetricsPanel(pipeline.metrics), BorderLayout.SOUTH);
 
-        refreshSeatDisplay(); // Initial seat status display
+        seatGrid.start(); // Every seat starts dirty, so the first frame draws the full chart
 
         // Window setup
-        setSize(500, 600);
+        setSize(620, 760);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setVisible(true);
     }
 
-    // Updates seat status area in the UI
-    void refreshSeatDisplay() {
-        StringBuilder sb = new StringBuilder();
-        seatManager.getSeats().forEach((k, v) ->
-            sb.append("Seat ").append(k).append(": ")
-              .append(v ? "Booked ✅" : "Available 🟢").append("\n"));
-        statusArea.setText(sb.toString());
+    // Adds a request to the booking queue, stamped for the queue-wait metric
+    void queueRequest(BookingRequest request) {
+        request.enqueuedNanos = System.nanoTime();
+        bookingQueue.add(request);
     }
 
-    public static void main(String[] args) {
+    // Queues a batch of results for the log; called on pipeline threads, shown on the next frame
+    void showResults(List<BookingResult> results) {
+        StringBuilder msg = new StringBuilder();
+        for (BookingResult result : results) {
+            msg.append("User ").append(result.request.userId)
+               .append(" tried ").append(result.request.describeSeats())
+               .append(" → ").append(result.success ? "✅ Booked" : "❌ Failed");
+            if (result.conflicts > 0) {
+                msg.append(" (conflicts: ").append(result.conflicts)
+                   .append(", retries: ").append(result.retries).append(")");
+            }
+            msg.append("\n");
+        }
+        if (seatStore.isReadOnly()) msg.append(READ_ONLY_NOTE).append("\n");
+        synchronized (pendingLog) {
+            pendingLog.append(msg);
+        }
+    }
+
+    // Queues one log line from any thread; it is shown on the next frame
+    void log(String line) {
+        synchronized (pendingLog) {
+            pendingLog.append(line).append("\n");
+        }
+    }
+
+    // Explains a refused change: the given reason, unless a journal failure made the store read-only
+    String failure(String reason) {
+        return seatStore.isReadOnly() ? READ_ONLY_NOTE : reason;
+    }
+
+    // Appends everything logged since the last frame in one go (runs on the EDT)
+    void flushLog() {
+        String text;
+        synchronized (pendingLog) {
+            if (pendingLog.length() == 0) return;
+            text = pendingLog.toString();
+            pendingLog.setLength(0);
+        }
+        logArea.append(text);
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Rebuild seat state from the last snapshot plus the booking journal before the GUI
+        // exists, so replaying a long journal never blocks the Swing UI thread
+        ShardedSeatStore store = BookingRecovery.recover(DATA_DIR, 1);
+        BookingRecovery.scheduleSnapshots(store, DATA_DIR, SNAPSHOT_PERIOD_MILLIS);
+        if (store.eventCount() == 0) store.addEvent(40); // One event, 40 total seats
+
         // Launch the GUI on the Swing UI thread
-        SwingUtilities.invokeLater(OnlineTicketing::new);
+        SwingUtilities.invokeLater(() -> new OnlineTicketing(store));
     }
 }
@@ -0,0 +1,57 @@
+package Ticket;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+// Dirty-seat change feed: a two-level concurrent bitset of seats changed since the last drain.
+// Writers set the seat's bit and then its word's bit in the summary level; the reader swaps
+// summary words to zero and visits only the dirty words below them. A seat that changes many
+// times between drains is reported once, and a drain costs O(changes + seats / 4096).
+class SeatChangeFeed {
+    final int totalSeats;
+    final AtomicLongArray dirty;   // One bit per seat
+    final AtomicLongArray summary; // One bit per word of `dirty`
+
+    SeatChangeFeed(int totalSeats) {
+        this.totalSeats = totalSeats;
+        int words = (totalSeats + 63) >>> 6;
+        this.dirty = new AtomicLongArray(words);
+        this.summary = new AtomicLongArray((words + 63) >>> 6);
+    }
+
+    // Marks a seat as changed; cheap when it is already marked
+    void mark(int seatNumber) {
+        int bit = seatNumber - 1;
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        if ((dirty.get(word) & mask) != 0) return;
+        dirty.getAndAccumulate(word, mask, (a, b) -> a | b);
+        // Summary is set after the seat bit so a concurrent drain can never lose the change
+        long summaryMask = 1L << word;
+        if ((summary.get(word >>> 6) & summaryMask) == 0) summary.getAndAccumulate(word >>> 6, summaryMask, (a, b) -> a | b);
+    }
+
+    // Marks every seat, e.g. after a reset or when a new subscriber needs a full picture
+    void markAll() {
+        for (int seat = 1; seat <= totalSeats; seat++) mark(seat);
+    }
+
+    // Hands each seat changed since the last drain to the consumer and clears it; returns the count
+    int drain(IntConsumer consumer) {
+        int count = 0;
+        for (int s = 0; s < summary.length(); s++) {
+            long words = summary.getAndSet(s, 0);
+            while (words != 0) {
+                int word = (s << 6) + Long.numberOfTrailingZeros(words);
+                words &= words - 1;
+                long bits = dirty.getAndSet(word, 0);
+                while (bits != 0) {
+                    consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits) + 1);
+                    bits &= bits - 1;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
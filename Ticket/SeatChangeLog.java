@@ -0,0 +1,13 @@
+package Ticket;
+
+// Receives every booking and cancellation together with the seat's new version, on the thread
+// that made the change, right after it took effect (used to journal them). Returning false
+// means the change could not be recorded: the seat manager then undoes it and reports the
+// booking or cancellation as failed. Holds, releases and group rollbacks are not reported.
+interface SeatChangeLog {
+    boolean booked(int seatNumber, long version);
+
+    boolean bookedGroup(int[] seatNumbers, long[] versions);
+
+    boolean cancelled(int seatNumber, long version);
+}
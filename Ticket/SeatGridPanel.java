@@ -0,0 +1,110 @@
+package Ticket;
+
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import javax.swing.*;
+
+// Graphical seating chart fed by a SeatChangeFeed.
+// The chart lives in a cached BufferedImage. A Swing timer drains the feed at most
+// FRAMES_PER_SECOND times a second, redraws just the changed cells into the image and asks
+// Swing to repaint the area they cover; paintComponent only copies the clipped part of the
+// image to the screen. The work per frame follows the number of changed seats, not the size
+// of the venue.
+final class SeatGridPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    static final int FRAMES_PER_SECOND = 30;
+
+    static final Color FREE_COLOR = new Color(76, 175, 80);
+    static final Color BOOKED_COLOR = new Color(229, 57, 53);
+    static final Color HELD_COLOR = new Color(255, 167, 38);
+    static final Color PENDING_COLOR = new Color(253, 216, 53);
+
+    final transient SeatManager seats;
+    final transient SeatChangeFeed feed;
+    final int seatsPerRow;
+    final int cellSize;
+    final transient BufferedImage chart;
+    final transient Graphics2D chartGraphics;
+    final Timer frameTimer;
+    transient Runnable onFrame = () -> {}; // Extra per-frame work, e.g. flushing a coalesced log
+
+    // Bounds of the cells redrawn in the current frame
+    private int dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+
+    SeatGridPanel(SeatManager seats, SeatChangeFeed feed, int seatsPerRow, int cellSize) {
+        this.seats = seats;
+        this.feed = feed;
+        this.seatsPerRow = seatsPerRow;
+        this.cellSize = cellSize;
+        Dimension size = getPreferredSize();
+        this.chart = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        this.chartGraphics = chart.createGraphics();
+        chartGraphics.setColor(Color.WHITE);
+        chartGraphics.fillRect(0, 0, size.width, size.height);
+        this.frameTimer = new Timer(1000 / FRAMES_PER_SECOND, _ -> frame());
+        frameTimer.setCoalesce(true); // Drop frames instead of queueing them if the EDT falls behind
+        setToolTipText("");
+    }
+
+    public void start() {
+        frameTimer.start();
+    }
+
+    public void stop() {
+        frameTimer.stop();
+    }
+
+    // One frame: redraw the seats that changed since the previous one
+    private void frame() {
+        dirtyMinX = dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = dirtyMaxY = -1;
+        if (feed.drain(this::drawSeat) > 0) {
+            repaint(dirtyMinX, dirtyMinY, dirtyMaxX - dirtyMinX, dirtyMaxY - dirtyMinY);
+        }
+        onFrame.run();
+    }
+
+    private void drawSeat(int seat) {
+        int x = ((seat - 1) % seatsPerRow) * cellSize;
+        int y = ((seat - 1) / seatsPerRow) * cellSize;
+        chartGraphics.setColor(colorOf(seats.getState(seat)));
+        chartGraphics.fillRect(x + 1, y + 1, cellSize - 2, cellSize - 2);
+        dirtyMinX = Math.min(dirtyMinX, x);
+        dirtyMinY = Math.min(dirtyMinY, y);
+        dirtyMaxX = Math.max(dirtyMaxX, x + cellSize);
+        dirtyMaxY = Math.max(dirtyMaxY, y + cellSize);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        g.drawImage(chart, 0, 0, null); // Clipped by Swing to the repainted area
+    }
+
+    static Color colorOf(int state) {
+        switch (state) {
+            case SeatManager.BOOKED: return BOOKED_COLOR;
+            case SeatManager.HELD: return HELD_COLOR;
+            case SeatManager.PENDING: return PENDING_COLOR;
+            default: return FREE_COLOR;
+        }
+    }
+
+    // Hovering a cell shows the seat number and its state
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int col = e.getX() / cellSize, row = e.getY() / cellSize;
+        int seat = row * seatsPerRow + col + 1;
+        if (col >= seatsPerRow || seat > seats.totalSeats) return null;
+        int state = seats.getState(seat);
+        return "Seat " + seat + ": " + (state == SeatManager.BOOKED ? "Booked"
+            : state == SeatManager.HELD ? "Held" : state == SeatManager.PENDING ? "Pending" : "Available");
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = (seats.totalSeats + seatsPerRow - 1) / seatsPerRow;
+        return new Dimension(seatsPerRow * cellSize, rows * cellSize);
+    }
+}
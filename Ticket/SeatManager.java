@@ -0,0 +1,425 @@
+package Ticket;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Seat Manager handles booking logic with pessimistic, optimistic and lock-free strategies.
+// Each seat is a version-stamped record packed into one long: the low bits hold the seat
+// state and the remaining bits a version that is bumped on every change, so an optimistic
+// writer can tell whether the seat changed between its read and its commit.
+//
+// Seats can also be held for checkout: FREE -> HELD -> BOOKED on confirmation, or back to
+// FREE on release or expiry. The stamp returned by holdSeat() is the hold's token, so a late
+// expiry or release for an old hold can never touch a seat that has since moved on.
+class SeatManager implements HoldTimerWheel.Expirable {
+    static final int FREE = 0;
+    static final int BOOKED = 1;
+    static final int PENDING = 2; // Reserved by an in-flight group booking
+    static final int HELD = 3;    // Held for checkout until confirmed, released or expired
+
+    static final long STATE_MASK = 0b11;
+    static final long VERSION_UNIT = 1L << 2;
+
+    static final int DEFAULT_MAX_RETRIES = 3;
+    static final long BACKOFF_BASE_NANOS = 1_000;
+    static final long BACKOFF_MAX_NANOS = 100_000;
+
+    final int totalSeats;
+    final AtomicLongArray seatStamps; // Version-stamped seat records indexed by seatNumber - 1
+    final Object lock = new Object(); // Shared lock object for synchronization
+
+    volatile int maxRetries = DEFAULT_MAX_RETRIES; // Optimistic retry limit after a failed commit
+
+    // Running totals across all optimistic requests
+    final LongAdder optimisticConflicts = new LongAdder();
+    final LongAdder optimisticRetries = new LongAdder();
+    final LongAdder expiredHolds = new LongAdder();
+
+    private HoldTimerWheel holdTimer; // Drives hold expiry, usually shared by a whole store
+    private volatile FreeSeatIndex freeIndex; // Optional free-run index, see enableFreeSeatIndex()
+    private volatile SeatChangeFeed changeFeed; // Optional dirty-seat feed, see enableChangeFeed()
+    private volatile SeatChangeLog changeLog; // Optional booking log, see setChangeLog()
+
+    public SeatManager(int totalSeats) {
+        this(totalSeats, null);
+    }
+
+    public SeatManager(int totalSeats, HoldTimerWheel holdTimer) {
+        // All seats start unbooked at version 0
+        this.totalSeats = totalSeats;
+        this.seatStamps = new AtomicLongArray(totalSeats);
+        this.holdTimer = holdTimer;
+    }
+
+    static int state(long stamp) {
+        return (int) (stamp & STATE_MASK);
+    }
+
+    static long version(long stamp) {
+        return stamp >>> 2;
+    }
+
+    // Next stamp for a seat: version bumped, state replaced
+    static long nextStamp(long stamp, int newState) {
+        return ((stamp & ~STATE_MASK) + VERSION_UNIT) | newState;
+    }
+
+    // Reports bookings and cancellations from now on; null stops reporting
+    public void setChangeLog(SeatChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) throw new IllegalArgumentException("maxRetries must be >= 0");
+        this.maxRetries = maxRetries;
+    }
+
+    // Books a seat using the given concurrency control strategy
+    public boolean bookSeat(int seatNumber, LockingMode mode) {
+        switch (mode) {
+            case OPTIMISTIC: return bookSeatOptimistic(seatNumber);
+            case PESSIMISTIC: return bookSeatPessimistic(seatNumber);
+            default: return bookSeatLockFree(seatNumber);
+        }
+    }
+
+    // Processes a queued request and reports the retries and conflicts it incurred
+    public BookingResult process(BookingRequest request, LockingMode mode) {
+        if (request.isGroup()) {
+            return new BookingResult(request, bookSeats(request.seatNumbers), 0, 0);
+        }
+        if (mode != LockingMode.OPTIMISTIC) {
+            return new BookingResult(request, bookSeat(request.seatNumber, mode), 0, 0);
+        }
+        long outcome = attemptOptimistic(request.seatNumber);
+        return new BookingResult(request, outcomeSuccess(outcome),
+            outcomeRetries(outcome), outcomeConflicts(outcome));
+    }
+
+    // Pessimistic locking: Lock is acquired before checking and booking
+    public boolean bookSeatPessimistic(int seatNumber) {
+        int i = seatNumber - 1;
+        boolean booked;
+        long next;
+        synchronized (lock) {
+            // CAS instead of a plain set so lock-free bookers running at the same time stay safe
+            long stamp = seatStamps.get(i);
+            next = nextStamp(stamp, BOOKED);
+            booked = state(stamp) == FREE && seatStamps.compareAndSet(i, stamp, next);
+        }
+        return booked && booked(seatNumber, next);
+    }
+
+    // Optimistic locking: read the seat version, commit with CAS, retry with backoff on conflict
+    public boolean bookSeatOptimistic(int seatNumber) {
+        return outcomeSuccess(attemptOptimistic(seatNumber));
+    }
+
+    // Lock-free booking: a single CAS on the seat's own slot, no shared monitor
+    public boolean bookSeatLockFree(int seatNumber) {
+        int i = seatNumber - 1;
+        long stamp = seatStamps.get(i);
+        long next = nextStamp(stamp, BOOKED);
+        if (state(stamp) != FREE || !seatStamps.compareAndSet(i, stamp, next)) return false;
+        return booked(seatNumber, next);
+    }
+
+    // Runs the optimistic read/commit/retry loop. The outcome is packed into a long
+    // (conflicts << 32 | retries << 1 | success) so the hot path allocates nothing.
+    private long attemptOptimistic(int seatNumber) {
+        int i = seatNumber - 1;
+        int retries = 0, conflicts = 0;
+        boolean success = false;
+        long committed = 0;
+        int limit = maxRetries;
+
+        while (true) {
+            long stamp = seatStamps.get(i); // Read seat state and version
+            int seatState = state(stamp);
+            long next = nextStamp(stamp, BOOKED);
+            if (seatState == FREE && seatStamps.compareAndSet(i, stamp, next)) {
+                committed = next;
+                success = true; // Committed: version was unchanged
+                break;
+            }
+            if (seatState == BOOKED || seatState == HELD) break; // Already taken, nothing to retry
+            conflicts++; // Version moved underneath us, or a group booking holds the seat
+            if (retries >= limit) break;
+            retries++;
+            backoff(retries);
+        }
+
+        if (success) success = booked(seatNumber, committed);
+        if (conflicts > 0) optimisticConflicts.add(conflicts);
+        if (retries > 0) optimisticRetries.add(retries);
+        return ((long) conflicts << 32) | ((long) retries << 1) | (success ? 1 : 0);
+    }
+
+    // Group booking: reserves every seat or none of them.
+    // Seats are claimed in ascending order by CAS-ing FREE -> PENDING; once all are claimed
+    // they are flipped to BOOKED. If any seat is already booked the claimed ones are rolled
+    // back. Nothing blocks, so there is no deadlock, and the global lock is never taken.
+    // Meeting another group's PENDING seat is a transient conflict and is retried with backoff.
+    public boolean bookSeats(int... seatNumbers) {
+        int[] order = seatNumbers.clone();
+        Arrays.sort(order); // Fixed claim order keeps overlapping groups from starving each other
+        for (int k = 1; k < order.length; k++) {
+            if (order[k] == order[k - 1]) {
+                throw new IllegalArgumentException("Duplicate seat in group: " + order[k]);
+            }
+        }
+
+        long[] claimed = new long[order.length]; // PENDING stamps we installed
+        int retries = 0;
+
+        while (true) {
+            int blockedState = claimAll(order, claimed);
+            if (blockedState < 0) {
+                // Every seat is ours: publish the booking. Only the owner touches PENDING seats.
+                for (int k = 0; k < order.length; k++) {
+                    seatStamps.set(order[k] - 1, nextStamp(claimed[k], BOOKED));
+                }
+                boolean recorded = true;
+                SeatChangeLog log = changeLog;
+                if (log != null) {
+                    long[] versions = new long[order.length];
+                    for (int k = 0; k < order.length; k++) versions[k] = version(nextStamp(claimed[k], BOOKED));
+                    recorded = log.bookedGroup(order, versions);
+                    if (!recorded) {
+                        for (int k = 0; k < order.length; k++) undo(order[k], nextStamp(claimed[k], BOOKED), FREE);
+                    }
+                }
+                for (int seat : order) changed(seat);
+                return recorded;
+            }
+            if (blockedState != PENDING || retries >= maxRetries) return false;
+            retries++;
+            backoff(retries);
+        }
+    }
+
+    // Claims the sorted seats one by one. Returns -1 when all are claimed, otherwise rolls back
+    // and returns the state of the seat that blocked the claim.
+    private int claimAll(int[] order, long[] claimed) {
+        for (int k = 0; k < order.length; k++) {
+            int i = order[k] - 1;
+            long stamp = seatStamps.get(i);
+            long pending = nextStamp(stamp, PENDING);
+            if (state(stamp) != FREE || !seatStamps.compareAndSet(i, stamp, pending)) {
+                for (int j = 0; j < k; j++) {
+                    seatStamps.set(order[j] - 1, nextStamp(claimed[j], FREE));
+                }
+                int blocked = state(seatStamps.get(i));
+                return blocked == FREE ? PENDING : blocked; // Lost a race on a free seat: retryable
+            }
+            claimed[k] = pending;
+        }
+        return -1;
+    }
+
+    // Holds a free seat for holdMillis. Returns the hold token, or -1 if the seat isn't free.
+    public long holdSeat(int seatNumber, long holdMillis) {
+        int i = seatNumber - 1;
+        long stamp = seatStamps.get(i);
+        long held = nextStamp(stamp, HELD);
+        if (state(stamp) != FREE || !seatStamps.compareAndSet(i, stamp, held)) return -1;
+        changed(seatNumber);
+        HoldTimerWheel timer = holdTimer();
+        timer.schedule(this, seatNumber, held, timer.nowMillis() + holdMillis);
+        return held;
+    }
+
+    // Turns a hold into a booking; fails if the hold already expired or was released
+    public boolean confirmHold(int seatNumber, long holdToken) {
+        long next = nextStamp(holdToken, BOOKED);
+        if (!seatStamps.compareAndSet(seatNumber - 1, holdToken, next)) return false;
+        return booked(seatNumber, next);
+    }
+
+    // Gives a held seat back to the free pool before its hold runs out
+    public boolean releaseHold(int seatNumber, long holdToken) {
+        if (!seatStamps.compareAndSet(seatNumber - 1, holdToken, nextStamp(holdToken, FREE))) return false;
+        changed(seatNumber);
+        return true;
+    }
+
+    // Timer wheel callback: frees the seat only if it is still under this exact hold.
+    // Confirmed or released holds leave their timeout in the wheel; it just does nothing here.
+    @Override
+    public void expire(int seatNumber, long holdToken) {
+        if (releaseHold(seatNumber, holdToken)) expiredHolds.increment();
+    }
+
+    // Cancels a confirmed booking; the seat is free again as soon as this returns
+    public boolean cancelSeat(int seatNumber) {
+        int i = seatNumber - 1;
+        while (true) {
+            long stamp = seatStamps.get(i);
+            if (state(stamp) != BOOKED) return false;
+            long next = nextStamp(stamp, FREE);
+            if (seatStamps.compareAndSet(i, stamp, next)) {
+                SeatChangeLog log = changeLog;
+                boolean recorded = log == null || log.cancelled(seatNumber, version(next));
+                if (!recorded) undo(seatNumber, next, BOOKED);
+                changed(seatNumber);
+                return recorded;
+            }
+        }
+    }
+
+    // Builds a free-run index over rows of seatsPerRow seats; from now on every change marks its
+    // seat for the index, which folds the marked seats in on the next best-seat query or count
+    public void enableFreeSeatIndex(int seatsPerRow) {
+        freeIndex = new FreeSeatIndex(this, seatsPerRow);
+        freeIndex.rebuild(); // Catch changes made while the index was being built
+    }
+
+    // First seat of the best (front-most, then left-most) run of n free adjacent seats, or -1
+    public int findBestContiguous(int n) {
+        FreeSeatIndex index = freeIndex;
+        if (index == null) throw new IllegalStateException("Free-seat index not enabled");
+        return index.findContiguous(n);
+    }
+
+    // Books the best run of n adjacent seats; the index is only a hint, so a run lost to a
+    // concurrent booking is looked up again, up to maxRetries times. Returns the seats or null.
+    public int[] bookBestContiguous(int n) {
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            int first = findBestContiguous(n);
+            if (first < 0) return null;
+            int[] run = new int[n];
+            for (int k = 0; k < n; k++) run[k] = first + k;
+            if (bookSeats(run)) return run;
+        }
+        return null;
+    }
+
+    // Starts recording which seats change, for incremental displays; every seat starts dirty
+    public synchronized SeatChangeFeed enableChangeFeed() {
+        if (changeFeed == null) {
+            SeatChangeFeed feed = new SeatChangeFeed(totalSeats);
+            feed.markAll();
+            changeFeed = feed;
+        }
+        return changeFeed;
+    }
+
+    // Free seats right now: cheap with the index (only seats changed since the last query are
+    // re-read), a full scan without it
+    public int countAvailable() {
+        FreeSeatIndex index = freeIndex;
+        if (index != null) return index.countFree();
+        int count = 0;
+        for (int i = 0; i < totalSeats; i++) if (state(seatStamps.get(i)) == FREE) count++;
+        return count;
+    }
+
+    // Keeps the optional index and change feed in step with a seat that just changed
+    private void changed(int seatNumber) {
+        FreeSeatIndex index = freeIndex;
+        if (index != null) index.mark(seatNumber);
+        SeatChangeFeed feed = changeFeed;
+        if (feed != null) feed.mark(seatNumber);
+    }
+
+    // A booking took effect with the given stamp: report it, undo it if the log could not record
+    // it, then update the index and feed. Returns whether the booking stands.
+    private boolean booked(int seatNumber, long stamp) {
+        SeatChangeLog log = changeLog;
+        boolean recorded = log == null || log.booked(seatNumber, version(stamp));
+        if (!recorded) undo(seatNumber, stamp, FREE);
+        changed(seatNumber);
+        return recorded;
+    }
+
+    // Reverts a change the log could not record, unless the seat has moved on since. The version
+    // is bumped again, so the undo still orders after the change it reverts.
+    private void undo(int seatNumber, long applied, int previousState) {
+        seatStamps.compareAndSet(seatNumber - 1, applied, nextStamp(applied, previousState));
+    }
+
+    private synchronized HoldTimerWheel holdTimer() {
+        if (holdTimer == null) holdTimer = new HoldTimerWheel(HoldTimerWheel.DEFAULT_TICK_MILLIS);
+        holdTimer.start();
+        return holdTimer;
+    }
+
+    static boolean outcomeSuccess(long outcome) {
+        return (outcome & 1) != 0;
+    }
+
+    static int outcomeRetries(long outcome) {
+        return (int) (outcome & 0xFFFF_FFFFL) >>> 1;
+    }
+
+    static int outcomeConflicts(long outcome) {
+        return (int) (outcome >>> 32);
+    }
+
+    // Exponential backoff: spin on the first retry, then park for a growing, capped interval
+    private static void backoff(int attempt) {
+        if (attempt == 1) {
+            Thread.onSpinWait();
+            return;
+        }
+        long nanos = Math.min(BACKOFF_MAX_NANOS, BACKOFF_BASE_NANOS << Math.min(attempt - 2, 20));
+        LockSupport.parkNanos(nanos);
+    }
+
+    public boolean isBooked(int seatNumber) {
+        return state(seatStamps.get(seatNumber - 1)) == BOOKED;
+    }
+
+    // FREE, BOOKED, PENDING or HELD
+    public int getState(int seatNumber) {
+        return state(seatStamps.get(seatNumber - 1));
+    }
+
+    public long getExpiredHolds() {
+        return expiredHolds.sum();
+    }
+
+    // Current version of a seat, bumped on every state change
+    public long getVersion(int seatNumber) {
+        return version(seatStamps.get(seatNumber - 1));
+    }
+
+    public long getOptimisticConflicts() {
+        return optimisticConflicts.sum();
+    }
+
+    public long getOptimisticRetries() {
+        return optimisticRetries.sum();
+    }
+
+    // Puts a seat into a journaled or snapshotted state unless it already holds a newer one,
+    // so records replayed out of order still leave the highest version. Used during recovery.
+    boolean restore(int seatNumber, int seatState, long version) {
+        int i = seatNumber - 1;
+        if (version <= version(seatStamps.get(i))) return false;
+        seatStamps.set(i, version << 2 | seatState);
+        changed(seatNumber);
+        return true;
+    }
+
+    // Frees every seat, keeping versions monotonic. Used by benchmarks between rounds.
+    void reset() {
+        for (int i = 0; i < totalSeats; i++) {
+            long stamp = seatStamps.get(i);
+            seatStamps.set(i, nextStamp(stamp, FREE));
+        }
+        FreeSeatIndex index = freeIndex;
+        if (index != null) index.rebuild();
+        SeatChangeFeed feed = changeFeed;
+        if (feed != null) feed.markAll();
+    }
+
+    // Returns a snapshot of the current seat booking status
+    public Map<Integer, Boolean> getSeats() {
+        Map<Integer, Boolean> seats = new LinkedHashMap<>();
+        for (int i = 1; i <= totalSeats; i++) seats.put(i, isBooked(i));
+        return seats;
+    }
+}
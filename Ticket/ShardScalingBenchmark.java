@@ -0,0 +1,60 @@
+package Ticket;
+
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throughput and memory of ShardedSeatStore as shards are added.
+// Each shard owns EVENTS_PER_SHARD events; its inbox is pre-filled with random single-seat
+// requests for those events, then all shard threads are started and timed until drained.
+// Memory per seat is the measured heap growth of building the store divided by its seats.
+//
+// Usage: java Ticket.ShardScalingBenchmark [seatsPerEvent] [requestsPerShard]
+public class ShardScalingBenchmark {
+    static final int[] SHARD_COUNTS = {1, 2, 4, 8, 16};
+    static final int EVENTS_PER_SHARD = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        int seatsPerEvent = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int requestsPerShard = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.printf("%d seats per event, %d events per shard, %d requests per shard, %d cores%n",
+            seatsPerEvent, EVENTS_PER_SHARD, requestsPerShard, Runtime.getRuntime().availableProcessors());
+        run(2, seatsPerEvent, requestsPerShard, false); // Warm up
+
+        System.out.printf("%7s %12s %14s %16s %16s%n",
+            "Shards", "Seats", "Bytes/seat", "Requests/sec", "Per shard/sec");
+        for (int shards : SHARD_COUNTS) run(shards, seatsPerEvent, requestsPerShard, true);
+    }
+
+    static void run(int shardCount, int seatsPerEvent, int requestsPerShard, boolean print) throws InterruptedException {
+        long before = usedHeap();
+        ShardedSeatStore store = new ShardedSeatStore(shardCount);
+        for (int e = 0; e < shardCount * EVENTS_PER_SHARD; e++) store.addEvent(seatsPerEvent);
+        double bytesPerSeat = (double) (usedHeap() - before) / store.totalSeats();
+
+        // Events e, e + shardCount, e + 2 * shardCount, ... all land on shard e % shardCount
+        Random random = new Random(42);
+        for (int s = 0; s < shardCount; s++) {
+            for (int r = 0; r < requestsPerShard; r++) {
+                int eventId = s + shardCount * random.nextInt(EVENTS_PER_SHARD);
+                store.submit(new BookingRequest("U" + r, eventId, 1 + random.nextInt(seatsPerEvent)));
+            }
+        }
+
+        LongAdder processed = new LongAdder();
+        long start = System.nanoTime();
+        store.start(LockingMode.LOCK_FREE, _ -> processed.increment());
+        store.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double rate = processed.sum() / seconds;
+        if (print) System.out.printf("%7d %,12d %14.2f %,16.0f %,16.0f%n",
+            shardCount, store.totalSeats(), bytesPerSeat, rate, rate / shardCount);
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,247 @@
+package Ticket;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Multi-venue seat store keyed by (eventId, seatNumber).
+// Every event gets its own SeatManager, whose seats are packed version stamps in a primitive
+// long array (8 bytes per seat, no boxed keys or values). Events are spread over shards by
+// eventId; each shard has its own request inbox and processing thread, so shards never share
+// a queue, a lock or a cache line and throughput grows with the number of shards.
+// When a BookingJournal is attached, new events, bookings and cancellations are journaled.
+// Each event's SeatManager appends its bookings and cancellations the moment they take effect,
+// tagged with the seat's version, so recovery can put a seat's changes back in order.
+// Holds are deliberately not journaled: after a crash every unconfirmed hold is simply gone.
+// If the journal fails, the change it could not record is undone and the store turns read-only:
+// every later booking, hold and cancellation fails until a restart recovers from the journal.
+class ShardedSeatStore {
+    static final int DRAIN_BATCH = 256;
+
+    final int shardCount;
+    final Shard[] shards;
+    volatile SeatManager[] events = new SeatManager[0]; // Indexed by eventId, copy-on-write
+    volatile BookingJournal journal; // Optional write-ahead log
+    volatile IOException journalFailure; // First journal error; the store is read-only once set
+    final HoldTimerWheel holdTimer = new HoldTimerWheel(HoldTimerWheel.DEFAULT_TICK_MILLIS); // Shared by all events
+
+    public ShardedSeatStore(int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be >= 1");
+        this.shardCount = shardCount;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) shards[i] = new Shard(i);
+    }
+
+    // Starts journaling; call after recovery and before taking new bookings
+    public void attachJournal(BookingJournal journal) {
+        this.journal = journal;
+        SeatManager[] current = events;
+        for (int eventId = 0; eventId < current.length; eventId++) {
+            current[eventId].setChangeLog(new EventLog(journal, eventId));
+        }
+    }
+
+    // Registers a new event with the given number of seats and returns its eventId
+    public synchronized int addEvent(int totalSeats) {
+        SeatManager[] grown = Arrays.copyOf(events, events.length + 1);
+        grown[events.length] = new SeatManager(totalSeats, holdTimer);
+        int eventId = events.length;
+        if (journal != null) {
+            try {
+                journal.awaitDurable(journal.append(BookingJournal.OP_ADD_EVENT, eventId, totalSeats));
+            } catch (IOException e) {
+                journalFailed(e);
+                throw new UncheckedIOException(e);
+            }
+            grown[eventId].setChangeLog(new EventLog(journal, eventId));
+        }
+        events = grown;
+        return eventId;
+    }
+
+    public SeatManager event(int eventId) {
+        return events[eventId];
+    }
+
+    public int eventCount() {
+        return events.length;
+    }
+
+    public int shardOf(int eventId) {
+        return eventId % shardCount;
+    }
+
+    // True once the journal has failed; nothing can be booked or cancelled any more
+    public boolean isReadOnly() {
+        return journalFailure != null;
+    }
+
+    public long totalSeats() {
+        long total = 0;
+        for (SeatManager event : events) total += event.totalSeats;
+        return total;
+    }
+
+    // Books directly on the calling thread; the booking is journaled but not yet durable
+    public boolean bookSeat(int eventId, int seatNumber, LockingMode mode) {
+        return !isReadOnly() && events[eventId].bookSeat(seatNumber, mode);
+    }
+
+    // Books a request. A successful booking is only appended to the journal here;
+    // callers that confirm bookings to users should call syncJournal() first.
+    public BookingResult process(BookingRequest request, LockingMode mode) {
+        if (isReadOnly()) return new BookingResult(request, false, 0, 0);
+        return events[request.eventId].process(request, mode);
+    }
+
+    // Books the best run of n adjacent free seats (the event needs a free-seat index);
+    // returns the booked seats, durable on return, or null
+    public int[] bookBestContiguous(int eventId, int n) {
+        if (isReadOnly()) return null;
+        int[] run = events[eventId].bookBestContiguous(n);
+        return run != null && syncJournal() ? run : null;
+    }
+
+    // Holds a seat for checkout; returns the hold token or -1
+    public long holdSeat(int eventId, int seatNumber, long holdMillis) {
+        if (isReadOnly()) return -1;
+        return events[eventId].holdSeat(seatNumber, holdMillis);
+    }
+
+    // Confirms a hold as a booking; returns once the booking is durable
+    public boolean confirmHold(int eventId, int seatNumber, long holdToken) {
+        return !isReadOnly() && events[eventId].confirmHold(seatNumber, holdToken) && syncJournal();
+    }
+
+    public boolean releaseHold(int eventId, int seatNumber, long holdToken) {
+        return events[eventId].releaseHold(seatNumber, holdToken);
+    }
+
+    // Cancels (refunds) a booking; the seat is free immediately and the cancellation durable on return
+    public boolean cancelSeat(int eventId, int seatNumber) {
+        return !isReadOnly() && events[eventId].cancelSeat(seatNumber) && syncJournal();
+    }
+
+    // Waits until every journaled booking so far is durable (one group commit for many bookings).
+    // Returns false if the journal failed: those bookings took effect but may be lost on restart,
+    // so they must not be confirmed, and the store is read-only from then on.
+    public boolean syncJournal() {
+        BookingJournal log = journal;
+        if (log == null) return true;
+        try {
+            log.sync();
+            return true;
+        } catch (IOException e) {
+            journalFailed(e);
+            return false;
+        }
+    }
+
+    // Records the first journal error and reports it once; the store is read-only from here on
+    synchronized void journalFailed(IOException e) {
+        if (journalFailure != null) return;
+        journalFailure = e;
+        System.err.println("Booking journal failed, seat store is now read-only: " + e);
+    }
+
+    // Queues a request on the inbox of the shard that owns its event
+    public void submit(BookingRequest request) {
+        shards[shardOf(request.eventId)].inbox.add(request);
+    }
+
+    // Starts one processing thread per shard; each result is handed to the sink on that thread
+    public void start(LockingMode mode, Consumer<BookingResult> sink) {
+        for (Shard shard : shards) shard.start(mode, sink);
+    }
+
+    // Stops the shard threads once their inboxes are empty
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) shard.running = false;
+        for (Shard shard : shards) if (shard.thread != null) shard.thread.join();
+    }
+
+    // Appends one event's bookings and cancellations to the journal as they happen. An append
+    // that fails marks the store read-only and tells the seat manager to undo the change.
+    final class EventLog implements SeatChangeLog {
+        final BookingJournal journal;
+        final int eventId;
+
+        EventLog(BookingJournal journal, int eventId) {
+            this.journal = journal;
+            this.eventId = eventId;
+        }
+
+        @Override
+        public boolean booked(int seatNumber, long version) {
+            return append(BookingJournal.OP_BOOK, seatNumber, version);
+        }
+
+        @Override
+        public boolean bookedGroup(int[] seatNumbers, long[] versions) {
+            try {
+                journal.appendGroup(eventId, seatNumbers, versions);
+                return true;
+            } catch (IOException e) {
+                journalFailed(e);
+                return false;
+            }
+        }
+
+        @Override
+        public boolean cancelled(int seatNumber, long version) {
+            return append(BookingJournal.OP_CANCEL, seatNumber, version);
+        }
+
+        private boolean append(int op, int seatNumber, long version) {
+            try {
+                journal.append(op, eventId, seatNumber, version);
+                return true;
+            } catch (IOException e) {
+                journalFailed(e);
+                return false;
+            }
+        }
+    }
+
+    // One shard: a private inbox drained in batches by a single thread
+    class Shard {
+        final int index;
+        final BlockingQueue<BookingRequest> inbox = new LinkedBlockingQueue<>();
+        volatile boolean running;
+        Thread thread;
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        void start(LockingMode mode, Consumer<BookingResult> sink) {
+            running = true;
+            thread = new Thread(() -> drainLoop(mode, sink), "seat-shard-" + index);
+            thread.start();
+        }
+
+        private void drainLoop(LockingMode mode, Consumer<BookingResult> sink) {
+            List<BookingRequest> batch = new ArrayList<>(DRAIN_BATCH);
+            while (running || !inbox.isEmpty()) {
+                try {
+                    if (inbox.drainTo(batch, DRAIN_BATCH) == 0) {
+                        BookingRequest next = inbox.poll(10, TimeUnit.MILLISECONDS);
+                        if (next == null) continue;
+                        batch.add(next);
+                    }
+                    List<BookingResult> results = new ArrayList<>(batch.size());
+                    for (BookingRequest request : batch) results.add(process(request, mode));
+                    batch.clear();
+                    // Results are only handed out once durable; none are if the sync failed
+                    if (!syncJournal()) results.replaceAll(BookingResult::failed);
+                    for (BookingResult result : results) sink.accept(result);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package Traffic;
+
+import java.util.Arrays;
+
+/**
+ * Pending-event queue for the discrete-event simulation.
+ * A binary min-heap kept in parallel primitive arrays, so scheduling and popping events
+ * allocates nothing once the arrays have grown. Events are ordered by time, then by target
+ * (intersection, kind and approach packed into an int), then by data, then by insertion
+ * sequence. The tie-breaks make the order depend only on the events themselves, never on
+ * which thread or region scheduled them first.
+ */
+public class EventQueue {
+    private long[] times = new long[1024];
+    private int[] targets = new int[1024];
+    private long[] data = new long[1024];
+    private long[] seqs = new long[1024];
+    private int size = 0;
+    private long nextSeq = 0;
+
+    // Popped event, valid until the next poll()
+    private long polledTime;
+    private int polledTarget;
+    private long polledData;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Time of the earliest event, or Long.MAX_VALUE when empty
+    public long peekTime() {
+        return size == 0 ? Long.MAX_VALUE : times[0];
+    }
+
+    public void add(long time, int target, long value) {
+        if (size == times.length) grow();
+        int i = size++;
+        long seq = nextSeq++;
+        // Sift up
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(time, target, value, seq, parent)) break;
+            move(parent, i);
+            i = parent;
+        }
+        set(i, time, target, value, seq);
+    }
+
+    // Removes the earliest event; read it with time(), target() and data()
+    public void poll() {
+        polledTime = times[0];
+        polledTarget = targets[0];
+        polledData = data[0];
+        int last = --size;
+        if (last == 0) return;
+        long time = times[last];
+        int target = targets[last];
+        long value = data[last];
+        long seq = seqs[last];
+        // Sift down
+        int i = 0;
+        int half = last >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < last && less(times[right], targets[right], data[right], seqs[right], child)) child = right;
+            if (!lessThanSlot(child, time, target, value, seq)) break;
+            move(child, i);
+            i = child;
+        }
+        set(i, time, target, value, seq);
+    }
+
+    public long time() {
+        return polledTime;
+    }
+
+    public int target() {
+        return polledTarget;
+    }
+
+    public long data() {
+        return polledData;
+    }
+
+    public void clear() {
+        size = 0;
+        nextSeq = 0;
+    }
+
+    // Is (time, target, value, seq) ordered before the event in slot j?
+    private boolean less(long time, int target, long value, long seq, int j) {
+        if (time != times[j]) return time < times[j];
+        if (target != targets[j]) return target < targets[j];
+        if (value != data[j]) return value < data[j];
+        return seq < seqs[j];
+    }
+
+    // Is the event in slot j ordered before (time, target, value, seq)?
+    private boolean lessThanSlot(int j, long time, int target, long value, long seq) {
+        if (times[j] != time) return times[j] < time;
+        if (targets[j] != target) return targets[j] < target;
+        if (data[j] != value) return data[j] < value;
+        return seqs[j] < seq;
+    }
+
+    private void move(int from, int to) {
+        times[to] = times[from];
+        targets[to] = targets[from];
+        data[to] = data[from];
+        seqs[to] = seqs[from];
+    }
+
+    private void set(int i, long time, int target, long value, long seq) {
+        times[i] = time;
+        targets[i] = target;
+        data[i] = value;
+        seqs[i] = seq;
+    }
+
+    private void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        data = Arrays.copyOf(data, capacity);
+        seqs = Arrays.copyOf(seqs, capacity);
+    }
+}
@@ -5,9 +5,11 @@ import java.awt.*;
 import java.awt.event.*;
 
 public class Main {
+    static final int REFRESH_MILLIS = 250; // Queue view refresh period
+
     public static void main(String[] args) {
         JFrame frame = new JFrame("Traffic Signal System");
-        frame.setSize(500, 400);
+        frame.setSize(900, 420);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLayout(new BorderLayout());
 
@@ -17,16 +19,40 @@ public class Main {
         JLabel signalLabel = new JLabel("Signal: RED", SwingConstants.CENTER);
 
         JButton addVehicleBtn = new JButton("Add Vehicle");
+        JButton busBtn = new JButton("Add Bus");
         JButton emergencyBtn = new JButton("Add Emergency Vehicle");
+        JButton rushHourBtn = new JButton("Rush Hour (+10k)");
         JButton signalBtn = new JButton("Change Signal");
+        JToggleButton adaptiveBtn = new JToggleButton("Adaptive Timing", false);
 
         // Threaded Managers
         VehicleManager vehicleManager = new VehicleManager();
-        TrafficLightController signalController = new TrafficLightController();
+        TrafficLightController signalController = new TrafficLightController(vehicleManager);
+        signalController.setAdaptive(false); // Fixed 5-second timing until the toggle turns adaptive on
+        vehicleManager.setSignalController(signalController);
 
         Thread vehicleThread = new Thread(vehicleManager);
         Thread signalThread = new Thread(signalController);
 
+        // java Traffic.Main --record <file> traces the session for TraceReplayer
+        if (args.length >= 2 && args[0].equals("--record")) {
+            try {
+                TraceRecorder recorder = new TraceRecorder(java.nio.file.Path.of(args[1]));
+                vehicleManager.setRecorder(recorder);
+                signalController.setRecorder(recorder);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        recorder.close();
+                        System.out.println("Trace saved: " + recorder.events() + " events");
+                    } catch (java.io.IOException ex) {
+                        System.err.println("Trace not saved: " + ex.getMessage());
+                    }
+                }));
+            } catch (java.io.IOException ex) {
+                System.err.println("Cannot record trace: " + ex.getMessage());
+            }
+        }
+
         vehicleThread.start();
         signalThread.start();
 
@@ -34,32 +60,76 @@ public class Main {
         addVehicleBtn.addActionListener(e -> {
             Vehicle v = new Vehicle("Car", false);
             vehicleManager.addVehicle(v);
-            queueArea.setText(String.join("\n", vehicleManager.getCurrentQueue()));
+        });
+
+        busBtn.addActionListener(e -> {
+            Vehicle v = new Vehicle("Bus", false);
+            vehicleManager.addVehicle(v);
         });
 
         emergencyBtn.addActionListener(e -> {
             Vehicle v = new Vehicle("Ambulance", true);
             vehicleManager.addVehicle(v);
-            queueArea.setText(String.join("\n", vehicleManager.getCurrentQueue()));
         });
 
         signalBtn.addActionListener(e -> {
             signalLabel.setText("Signal: " + signalController.getCurrentSignal());
         });
 
+        rushHourBtn.addActionListener(e -> {
+            for (int i = 0; i < 10_000; i++) {
+                vehicleManager.addVehicle(new Vehicle(i % 10 == 0 ? "Bus" : "Car", false));
+            }
+        });
+
+        adaptiveBtn.addActionListener(e -> signalController.setAdaptive(adaptiveBtn.isSelected()));
+
+        // Queue view: polls an aggregate snapshot instead of listing every vehicle
+        QueueSnapshot snapshot = new QueueSnapshot();
+        QueueHistoryPanel historyPanel = new QueueHistoryPanel();
+        StringBuilder text = new StringBuilder();
+        Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> {
+            vehicleManager.snapshot(snapshot);
+            describe(snapshot, text);
+            queueArea.setText(text.toString());
+            historyPanel.update(snapshot);
+            signalLabel.setText("Signal: " + signalController.getCurrentSignal());
+        });
+        refreshTimer.start();
+
         // Layout
         JPanel topPanel = new JPanel();
         topPanel.add(signalLabel);
 
         JPanel btnPanel = new JPanel();
         btnPanel.add(addVehicleBtn);
+        btnPanel.add(busBtn);
         btnPanel.add(emergencyBtn);
+        btnPanel.add(rushHourBtn);
         btnPanel.add(signalBtn);
+        btnPanel.add(adaptiveBtn);
 
         frame.add(topPanel, BorderLayout.NORTH);
         frame.add(new JScrollPane(queueArea), BorderLayout.CENTER);
+        frame.add(historyPanel, BorderLayout.EAST);
         frame.add(btnPanel, BorderLayout.SOUTH);
 
         frame.setVisible(true);
     }
+
+    // Summary text for a snapshot; a few short lines however long the queue is
+    static void describe(QueueSnapshot s, StringBuilder out) {
+        out.setLength(0);
+        out.append("Queued: ").append(s.total)
+            .append("   (Emergency ").append(s.byLane[VehicleScheduler.EMERGENCY])
+            .append(" · Bus ").append(s.byLane[VehicleScheduler.BUS])
+            .append(" · Regular ").append(s.byLane[VehicleScheduler.REGULAR]).append(")\n");
+        out.append("By type:");
+        for (int k = 0; k < s.typeCount; k++) {
+            out.append("  ").append(s.typeNames[k]).append(' ').append(s.queuedByType[k]);
+        }
+        out.append("\nPassed: ").append(s.dequeued).append(" of ").append(s.enqueued).append(" added\n\nNext up:\n");
+        for (int k = 0; k < s.headCount; k++) out.append("  ").append(k + 1).append(". ").append(s.head[k]).append('\n');
+        if (s.total > s.headCount) out.append("  … and ").append(s.total - s.headCount).append(" more\n");
+    }
 }
@@ -0,0 +1,54 @@
+package Traffic;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how ParallelTrafficSimulation scales with cores on a city grid.
+ * A sequential TrafficSimulation run gives the baseline time and the reference digest;
+ * each parallel run must reproduce that digest exactly.
+ *
+ * Usage: java Traffic.ParallelSimulationBenchmark [rows] [cols] [hours] [seed] [maxThreads]
+ */
+public class ParallelSimulationBenchmark {
+    static final int REGIONS_PER_THREAD = 2; // Spare strips even out uneven load
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        double hours = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        int maxThreads = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+        long until = (long) (hours * 3_600_000);
+        double rate = 6;
+
+        System.out.printf("%dx%d grid (%,d intersections), %.1f simulated hours, seed %d, %d cores%n",
+            rows, cols, rows * cols, hours, seed, Runtime.getRuntime().availableProcessors());
+
+        TrafficSimulation sequential = new TrafficSimulation(rows, cols, seed, rate);
+        long start = System.nanoTime();
+        sequential.start();
+        sequential.run(until);
+        double baseline = (System.nanoTime() - start) / 1e9;
+        SimulationStats reference = sequential.stats();
+        System.out.printf("Sequential: %.2f s, %,.0f events/s%n", baseline, reference.events / baseline);
+
+        System.out.printf("%-8s %-8s %-10s %-12s %-14s %-9s %s%n",
+            "Threads", "Regions", "Windows", "Wall (s)", "Events/s", "Speedup", "Matches");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            int regionCount = Math.min(rows, threads * REGIONS_PER_THREAD);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelTrafficSimulation sim = new ParallelTrafficSimulation(rows, cols, seed, rate, regionCount, pool);
+            start = System.nanoTime();
+            sim.start();
+            sim.run(until);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+            SimulationStats stats = sim.stats();
+            boolean matches = stats.digest == reference.digest && stats.events == reference.events
+                && stats.crossings == reference.crossings;
+            System.out.printf("%-8d %-8d %-10d %-12.2f %-14s %-9s %s%n",
+                threads, regionCount, sim.windows(), seconds, String.format("%,.0f", stats.events / seconds),
+                String.format("%.2fx", baseline / seconds), matches ? "yes" : "NO");
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package Traffic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs a TrafficSimulation grid partitioned into horizontal strips of rows, one region per
+ * strip, with every region simulated as a task on a ForkJoinPool.
+ *
+ * Synchronisation is conservative and windowed. No vehicle reaches the next intersection in
+ * less than TRAVEL_MIN_MILLIS, so an event a region processes at time t can only create
+ * work for a neighbouring region at t + TRAVEL_MIN_MILLIS or later. Each window therefore
+ * lets all regions run independently from the earliest pending event up to one lookahead
+ * past it; the join at the end of the window is the only barrier. Vehicles that cross a
+ * strip boundary travel through RegionMailboxes.
+ *
+ * Events keep the same total order inside every intersection however the grid is split,
+ * so the result matches the sequential TrafficSimulation for the same seed.
+ */
+public class ParallelTrafficSimulation {
+    static final int MAILBOX_CAPACITY = 1 << 14;
+    static final int DRAIN_INTERVAL = 1 << 12; // Events between mailbox drains inside a window
+
+    final TrafficSimulation grid;
+    final Region[] regions;
+    final int[] regionOfRow;
+    final ForkJoinPool pool;
+    final long lookahead = TrafficSimulation.TRAVEL_MIN_MILLIS;
+    long windows = 0;
+
+    public ParallelTrafficSimulation(int rows, int cols, long seed, double arrivalsPerMinute, int regionCount,
+            ForkJoinPool pool) {
+        if (regionCount < 1 || regionCount > rows) throw new IllegalArgumentException("regions must be 1.." + rows);
+        this.grid = new TrafficSimulation(rows, cols, seed, arrivalsPerMinute);
+        this.pool = pool;
+        regions = new Region[regionCount];
+        regionOfRow = new int[rows];
+        for (int r = 0; r < regionCount; r++) {
+            int firstRow = (int) ((long) r * rows / regionCount);
+            int endRow = (int) ((long) (r + 1) * rows / regionCount);
+            regions[r] = new Region(r, firstRow, endRow);
+            for (int row = firstRow; row < endRow; row++) regionOfRow[row] = r;
+        }
+        // Strips only border the strips directly above and below
+        for (int r = 1; r < regionCount; r++) {
+            regions[r].fromAbove = new RegionMailbox(MAILBOX_CAPACITY);
+            regions[r - 1].fromBelow = new RegionMailbox(MAILBOX_CAPACITY);
+        }
+    }
+
+    public void start() {
+        for (Region region : regions) {
+            for (int i = region.firstRow * grid.cols; i < region.endRow * grid.cols; i++) region.seed(i);
+        }
+    }
+
+    // Processes every event up to and including the given simulated time
+    public void run(long untilMillis) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(regions.length);
+        for (Region region : regions) tasks.add(ForkJoinTask.adapt(region::runWindow));
+        ForkJoinTask<?> window = ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks));
+        while (true) {
+            long earliest = Long.MAX_VALUE;
+            for (Region region : regions) {
+                region.drainMailboxes(true);
+                earliest = Math.min(earliest, region.events.peekTime());
+            }
+            if (earliest > untilMillis) break;
+            long end = Math.min(earliest + lookahead, untilMillis + 1);
+            for (Region region : regions) region.windowEnd = end;
+            for (ForkJoinTask<?> task : tasks) task.reinitialize();
+            window.reinitialize();
+            pool.invoke(window);
+            windows++;
+        }
+        for (Region region : regions) region.now = Math.max(region.now, untilMillis);
+    }
+
+    // Totals over all regions
+    public SimulationStats stats() {
+        SimulationStats total = new SimulationStats();
+        for (Region region : regions) total.add(region.stats);
+        return total;
+    }
+
+    public long windows() {
+        return windows;
+    }
+
+    public int regionCount() {
+        return regions.length;
+    }
+
+    // One strip of rows, simulated with its own clock, event queue and stats
+    class Region extends TrafficSimulation {
+        final int index, firstRow, endRow;
+        RegionMailbox fromAbove, fromBelow; // Inbound, written by the neighbouring regions
+        long windowEnd;
+
+        Region(int index, int firstRow, int endRow) {
+            super(grid);
+            this.index = index;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        void runWindow() {
+            // Arrivals from neighbours always land at or after windowEnd, so they can be
+            // picked up at any point in the window; draining now and then keeps the rings short
+            while (events.peekTime() < windowEnd) {
+                runSome(windowEnd, DRAIN_INTERVAL);
+                drainMailboxes(false);
+            }
+        }
+
+        private void runSome(long endMillis, int maxEvents) {
+            for (int k = 0; k < maxEvents && events.peekTime() < endMillis; k++) {
+                events.poll();
+                dispatch(events.time(), events.target(), events.data());
+            }
+        }
+
+        void drainMailboxes(boolean atBarrier) {
+            if (fromAbove != null) {
+                fromAbove.drainTo(events);
+                if (atBarrier) fromAbove.drainSpillTo(events);
+            }
+            if (fromBelow != null) {
+                fromBelow.drainTo(events);
+                if (atBarrier) fromBelow.drainSpillTo(events);
+            }
+        }
+
+        @Override
+        void sendArrival(long time, int n, int side, long vehicle) {
+            int target = regionOfRow[n / cols];
+            if (target == index) {
+                schedule(time, n, ARRIVAL, side, vehicle);
+            } else {
+                RegionMailbox mailbox = target < index ? regions[target].fromBelow : regions[target].fromAbove;
+                mailbox.send(time, n << 4 | ARRIVAL << 2 | side, vehicle);
+            }
+        }
+    }
+}
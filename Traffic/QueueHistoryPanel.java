@@ -0,0 +1,54 @@
+package Traffic;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Small line chart of the queue length over the last QueueStats.HISTORY seconds.
+ * Paints straight from the snapshot's history array.
+ */
+final class QueueHistoryPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    static final int PREFERRED_WIDTH = 240, PREFERRED_HEIGHT = 80;
+
+    private transient QueueSnapshot snapshot;
+
+    QueueHistoryPanel() {
+        setBackground(Color.WHITE);
+        setBorder(BorderFactory.createTitledBorder("Queue length"));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return isPreferredSizeSet() ? super.getPreferredSize() : new Dimension(PREFERRED_WIDTH, PREFERRED_HEIGHT);
+    }
+
+    void update(QueueSnapshot snapshot) {
+        this.snapshot = snapshot;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        QueueSnapshot s = snapshot;
+        if (s == null || s.historyCount == 0) return;
+        Insets in = getInsets();
+        int w = getWidth() - in.left - in.right;
+        int h = getHeight() - in.top - in.bottom;
+        int max = 1;
+        for (int k = 0; k < s.historyCount; k++) max = Math.max(max, s.history[k]);
+
+        g.setColor(new Color(40, 110, 200));
+        int px = -1, py = -1;
+        for (int k = 0; k < s.historyCount; k++) {
+            int x = in.left + (QueueStats.HISTORY - s.historyCount + k) * (w - 1) / (QueueStats.HISTORY - 1);
+            int y = in.top + h - 1 - (int) ((long) s.history[k] * (h - 1) / max);
+            if (px >= 0) g.drawLine(px, py, x, y);
+            px = x;
+            py = y;
+        }
+        g.setColor(Color.GRAY);
+        g.drawString(String.valueOf(max), in.left + 2, in.top + 12);
+    }
+}
@@ -0,0 +1,24 @@
+package Traffic;
+
+/**
+ * Point-in-time view of the vehicle queue for display.
+ * A snapshot is filled in place by VehicleManager.snapshot(), so a UI that polls on a timer
+ * can reuse one instance and allocate nothing per refresh. Counts are read from independent
+ * counters while vehicles keep moving, so they may be off by the few in flight.
+ */
+public class QueueSnapshot {
+    public static final int HEAD_SAMPLE = 8;
+
+    public long timestampNanos;
+    public int total;
+    public final int[] byLane = new int[3];  // Indexed by VehicleScheduler.EMERGENCY, BUS, REGULAR
+    public final String[] typeNames = new String[QueueStats.MAX_TYPES];
+    public final int[] queuedByType = new int[QueueStats.MAX_TYPES];
+    public int typeCount;
+    public final Vehicle[] head = new Vehicle[HEAD_SAMPLE]; // Next vehicles to be released
+    public int headCount;
+    public final int[] history = new int[QueueStats.HISTORY]; // Queue length per second, oldest first
+    public int historyCount;
+    public long enqueued; // Since start
+    public long dequeued;
+}
@@ -0,0 +1,85 @@
+package Traffic;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Aggregate queue statistics maintained incrementally by VehicleScheduler.
+ * Every offer and poll adjusts a per-type counter, and the first update in each second
+ * writes the queue length into a ring of recent samples. All state is in atomics, so the
+ * UI can read a QueueSnapshot at any time without locking out producers or the consumer,
+ * and without walking the queue.
+ */
+public class QueueStats {
+    public static final int MAX_TYPES = 16;     // Later types are counted under "Other"
+    public static final int HISTORY = 120;      // Seconds of queue-length samples kept
+    static final long BUCKET_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, Integer> typeSlots = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> typeNames = new AtomicReferenceArray<>(MAX_TYPES);
+    private final AtomicInteger typesUsed = new AtomicInteger();
+    private final AtomicLongArray queuedByType = new AtomicLongArray(MAX_TYPES);
+    private final AtomicLongArray history = new AtomicLongArray(HISTORY);
+    private final AtomicLong lastBucket = new AtomicLong(0);
+    private final long originNanos = System.nanoTime();
+
+    // Counter slot for a vehicle type, registering it on first sight
+    int slotOf(String type) {
+        Integer slot = typeSlots.get(type);
+        if (slot != null) return slot;
+        return typeSlots.computeIfAbsent(type, t -> {
+            int s;
+            do {
+                s = typesUsed.get();
+                if (s >= MAX_TYPES - 1) {
+                    typeNames.compareAndSet(MAX_TYPES - 1, null, "Other");
+                    return MAX_TYPES - 1;
+                }
+            } while (!typesUsed.compareAndSet(s, s + 1));
+            typeNames.set(s, t);
+            return s;
+        });
+    }
+
+    void onOffer(int typeSlot) {
+        queuedByType.incrementAndGet(typeSlot);
+    }
+
+    void onPoll(int typeSlot) {
+        queuedByType.decrementAndGet(typeSlot);
+    }
+
+    // Records the queue length once per second; cheap when the second hasn't changed
+    void sample(long nowNanos, VehicleScheduler scheduler) {
+        long bucket = (nowNanos - originNanos) / BUCKET_NANOS;
+        long last = lastBucket.get();
+        if (bucket <= last || !lastBucket.compareAndSet(last, bucket)) return;
+        // The length has not changed since the last update, so gaps get the same value
+        long length = scheduler.size();
+        for (long b = Math.max(last + 1, bucket - HISTORY + 1); b <= bucket; b++) {
+            history.set((int) (b % HISTORY), length);
+        }
+    }
+
+    // Copies types and the length series into a reusable snapshot
+    void fill(QueueSnapshot into) {
+        int types = Math.min(typesUsed.get(), MAX_TYPES);
+        if (typeNames.get(MAX_TYPES - 1) != null) types = MAX_TYPES;
+        into.typeCount = 0;
+        for (int s = 0; s < types; s++) {
+            String name = typeNames.get(s);
+            if (name == null) continue; // Being registered right now
+            into.typeNames[into.typeCount] = name;
+            into.queuedByType[into.typeCount++] = (int) Math.max(0, queuedByType.get(s));
+        }
+        long bucket = lastBucket.get();
+        into.historyCount = (int) Math.min(HISTORY, bucket + 1);
+        for (int k = 0; k < into.historyCount; k++) {
+            long b = bucket - into.historyCount + 1 + k;
+            into.history[k] = (int) history.get((int) (b % HISTORY));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package Traffic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free single-producer/single-consumer mailbox carrying vehicle arrivals
+ * from one simulation region to a neighbouring one.
+ * Messages are three longs (time, target, vehicle) in a power-of-two ring. The producer
+ * publishes its tail with a release store and the consumer its head, so neither side ever
+ * blocks. If the ring fills up the producer parks the overflow in a private spill buffer,
+ * which the consumer only reads after the window barrier.
+ */
+public class RegionMailbox {
+    private final long[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Next message to read
+    private final AtomicLong tail = new AtomicLong(); // Next free slot
+    private long cachedHead = 0;                       // Producer's last view of head
+
+    private long[] spill = new long[0];
+    private int spilled = 0;
+
+    public RegionMailbox(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new long[slots * 3];
+        mask = slots - 1;
+    }
+
+    // Producer side
+    public void send(long time, int target, long vehicle) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.getAcquire();
+            if (t - cachedHead > mask) {
+                spill(time, target, vehicle);
+                return;
+            }
+        }
+        int slot = (int) (t & mask) * 3;
+        ring[slot] = time;
+        ring[slot + 1] = target;
+        ring[slot + 2] = vehicle;
+        tail.setRelease(t + 1);
+    }
+
+    private void spill(long time, int target, long vehicle) {
+        if (spilled * 3 == spill.length) spill = Arrays.copyOf(spill, Math.max(48, spill.length * 2));
+        spill[spilled * 3] = time;
+        spill[spilled * 3 + 1] = target;
+        spill[spilled * 3 + 2] = vehicle;
+        spilled++;
+    }
+
+    // Consumer side: moves every published message into the event queue
+    public int drainTo(EventQueue events) {
+        long h = head.get();
+        long t = tail.getAcquire();
+        for (long k = h; k < t; k++) {
+            int slot = (int) (k & mask) * 3;
+            events.add(ring[slot], (int) ring[slot + 1], ring[slot + 2]);
+        }
+        head.setRelease(t);
+        return (int) (t - h);
+    }
+
+    // Consumer side, only while the producer is parked at the window barrier
+    public int drainSpillTo(EventQueue events) {
+        int n = spilled;
+        for (int k = 0; k < n; k++) events.add(spill[k * 3], (int) spill[k * 3 + 1], spill[k * 3 + 2]);
+        spilled = 0;
+        return n;
+    }
+}
@@ -0,0 +1,93 @@
+package Traffic;
+
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Compares VehicleScheduler with the PriorityBlockingQueue it replaced: several producer
+ * threads offer vehicles while one consumer drains them, as the signal thread does.
+ * Also checks that equal-priority vehicles leave in arrival order.
+ *
+ * Usage: java Traffic.SchedulerBenchmark [vehiclesPerProducer] [maxProducers]
+ */
+public class SchedulerBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int perProducer = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxProducers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        Vehicle[] fleet = new Vehicle[1024];
+        for (int k = 0; k < fleet.length; k++) {
+            fleet[k] = k % 100 == 0 ? new Vehicle("Ambulance", true)
+                : k % 10 == 0 ? new Vehicle("Bus", false)
+                : new Vehicle("Car", false);
+        }
+
+        System.out.printf("%-10s %-22s %-22s%n", "Producers", "VehicleScheduler", "PriorityBlockingQueue");
+        for (int producers = 1; producers <= maxProducers; producers *= 2) {
+            double scheduler = 0, blocking = 0;
+            for (int round = 0; round < 3; round++) { // First round warms up
+                scheduler = runScheduler(fleet, producers, perProducer);
+                blocking = runBlockingQueue(fleet, producers, perProducer);
+            }
+            System.out.printf("%-10d %-22s %-22s%n", producers,
+                String.format("%,.0f ops/s", scheduler), String.format("%,.0f ops/s", blocking));
+        }
+        checkFifo();
+    }
+
+    static double runScheduler(Vehicle[] fleet, int producers, int perProducer) throws InterruptedException {
+        VehicleScheduler scheduler = new VehicleScheduler();
+        long total = (long) producers * perProducer;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int k = 0; k < perProducer; k++) scheduler.offer(fleet[k & (fleet.length - 1)], k);
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread t : threads) t.start();
+        for (long taken = 0; taken < total; ) {
+            if (scheduler.poll(0) != null) taken++;
+            else Thread.onSpinWait();
+        }
+        for (Thread t : threads) t.join();
+        return total / ((System.nanoTime() - start) / 1e9);
+    }
+
+    static double runBlockingQueue(Vehicle[] fleet, int producers, int perProducer) throws InterruptedException {
+        PriorityBlockingQueue<Vehicle> queue = new PriorityBlockingQueue<>();
+        long total = (long) producers * perProducer;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int k = 0; k < perProducer; k++) queue.offer(fleet[k & (fleet.length - 1)]);
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread t : threads) t.start();
+        for (long taken = 0; taken < total; taken++) queue.take();
+        for (Thread t : threads) t.join();
+        return total / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // Emergency first, then FIFO among equals, with aging lifting an old car past newer buses
+    static void checkFifo() {
+        VehicleScheduler scheduler = new VehicleScheduler();
+        Vehicle[] cars = new Vehicle[5];
+        for (int k = 0; k < cars.length; k++) {
+            cars[k] = new Vehicle("Car" + k, false);
+            scheduler.offer(cars[k], k);
+        }
+        Vehicle bus = new Vehicle("Bus", false);
+        Vehicle lateBus = new Vehicle("Bus", false);
+        Vehicle ambulance = new Vehicle("Ambulance", true);
+        scheduler.offer(bus, 10);
+        scheduler.offer(ambulance, 20);
+        scheduler.offer(lateBus, VehicleScheduler.BUS_CREDIT_NANOS + 100);
+
+        Vehicle[] expected = {ambulance, bus, cars[0], cars[1], cars[2], cars[3], cars[4], lateBus};
+        boolean ok = true;
+        for (Vehicle v : expected) ok &= scheduler.poll(0) == v;
+        ok &= scheduler.poll(0) == null;
+        System.out.println(ok ? "Order check passed" : "Order check FAILED");
+    }
+}
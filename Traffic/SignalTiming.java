@@ -0,0 +1,21 @@
+package Traffic;
+
+/**
+ * Green-time rule shared by the adaptive TrafficLightController and TrafficSimulation.
+ * A green should last long enough to clear the vehicles already queued plus the ones that
+ * keep arriving while it drains: with Q queued, arrival rate λ and one vehicle crossing
+ * every h, the queue empties after Q·h / (1 - λ·h). The result is clamped so a quiet
+ * approach still gets a minimum green and a saturated one cannot hold the junction forever.
+ */
+public class SignalTiming {
+    public static final long MIN_GREEN_MILLIS = 5_000;
+    public static final long MAX_GREEN_MILLIS = 60_000;
+
+    public static long greenMillis(int queued, double arrivalsPerSecond, long headwayMillis,
+            long minGreenMillis, long maxGreenMillis) {
+        double inflow = arrivalsPerSecond * headwayMillis / 1000.0; // Arrivals per crossing
+        if (inflow >= 1) return maxGreenMillis;
+        double clear = (queued + inflow) * headwayMillis / (1 - inflow);
+        return Math.max(minGreenMillis, Math.min(maxGreenMillis, (long) clear));
+    }
+}
@@ -0,0 +1,55 @@
+package Traffic;
+
+/**
+ * Totals collected by a TrafficSimulation run.
+ * The digest is an order-independent hash of every processed event, so two runs that
+ * simulated exactly the same events report the same digest.
+ */
+public class SimulationStats {
+    public long events;          // Events processed
+    public long spawned;         // Vehicles that entered the grid
+    public long exited;          // Vehicles that left the grid or finished their trip
+    public long crossings;       // Vehicles that crossed an intersection
+    public long totalWaitMillis; // Time spent queued at signals, summed over crossings
+    public long maxWaitMillis;
+    public long totalTripMillis; // Entry-to-exit time, summed over exited vehicles
+    public long emergencyCrossings;
+    public long emergencyWaitMillis;
+    public long preemptions;     // Greens cut short for an emergency vehicle
+    public long digest;
+
+    public double averageWaitSeconds() {
+        return crossings == 0 ? 0 : totalWaitMillis / 1000.0 / crossings;
+    }
+
+    public double averageEmergencyWaitSeconds() {
+        return emergencyCrossings == 0 ? 0 : emergencyWaitMillis / 1000.0 / emergencyCrossings;
+    }
+
+    public double averageTripSeconds() {
+        return exited == 0 ? 0 : totalTripMillis / 1000.0 / exited;
+    }
+
+    // Folds another set of totals into this one
+    public void add(SimulationStats other) {
+        events += other.events;
+        spawned += other.spawned;
+        exited += other.exited;
+        crossings += other.crossings;
+        totalWaitMillis += other.totalWaitMillis;
+        maxWaitMillis = Math.max(maxWaitMillis, other.maxWaitMillis);
+        totalTripMillis += other.totalTripMillis;
+        emergencyCrossings += other.emergencyCrossings;
+        emergencyWaitMillis += other.emergencyWaitMillis;
+        preemptions += other.preemptions;
+        digest += other.digest;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d events, %,d vehicles in, %,d out, %,d crossings, "
+                + "avg wait %.1f s (max %.1f s), avg trip %.1f s, digest %016x",
+            events, spawned, exited, crossings, averageWaitSeconds(), maxWaitMillis / 1000.0,
+            averageTripSeconds(), digest);
+    }
+}
@@ -0,0 +1,86 @@
+package Traffic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Records a synthetic trace of the given size and replays it through VehicleManager and
+ * TrafficLightController at full speed.
+ * The generator runs a VehicleScheduler on the trace clock (Poisson arrivals, a departure
+ * every 2 s unless red, a signal change every 5 s), so the replay must release exactly the
+ * recorded vehicles in the recorded order.
+ *
+ * Usage: java Traffic.TraceBenchmark [events] [trace file] [keep]
+ */
+public class TraceBenchmark {
+    public static void main(String[] args) throws IOException {
+        long events = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+        Path file = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("traffic-trace", ".bin");
+        boolean keep = args.length > 2 && args[2].equals("keep");
+
+        long start = System.nanoTime();
+        long written = generate(file, events, 42);
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+        long bytes = Files.size(file);
+        System.out.printf("Recorded %,d events in %.2f s (%,.0f events/s), %,d bytes (%.2f bytes/event)%n",
+            written, writeSeconds, written / writeSeconds, bytes, (double) bytes / written);
+
+        VehicleManager vehicleManager = new VehicleManager();
+        TrafficLightController signalController = new TrafficLightController(vehicleManager);
+        TraceReplayer replayer = new TraceReplayer(vehicleManager, signalController);
+        start = System.nanoTime();
+        long replayed = replayer.replay(file);
+        double replaySeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %,d events in %.2f s (%,.0f events/s)%n", replayed, replaySeconds, replayed / replaySeconds);
+        System.out.println(replayer);
+
+        if (!keep) Files.delete(file);
+    }
+
+    // Writes `events` events from a single-approach junction model; returns the count written
+    static long generate(Path file, long events, long seed) throws IOException {
+        Random random = new Random(seed);
+        Vehicle car = new Vehicle("Car", false);
+        Vehicle bus = new Vehicle("Bus", false);
+        Vehicle ambulance = new Vehicle("Ambulance", true);
+        VehicleScheduler queue = new VehicleScheduler();
+
+        long meanArrivalMicros = 4_000_000;   // 75% of the junction's capacity (2 s service, moving 2/3 of the time)
+        long serviceMicros = 2_000_000;
+        long signalMicros = 5_000_000;
+        long now = 0;
+        long nextArrival = 0;
+        long nextDeparture = Long.MAX_VALUE;
+        long nextSignal = signalMicros;
+        int signal = 0; // Red, Green, Yellow
+
+        try (TraceRecorder recorder = new TraceRecorder(file)) {
+            while (recorder.events() < events) {
+                if (nextArrival <= nextDeparture && nextArrival <= nextSignal) {
+                    now = nextArrival;
+                    double u = random.nextDouble();
+                    Vehicle v = u < 0.01 ? ambulance : u < 0.1 ? bus : car;
+                    recorder.recordArrival(now, v);
+                    queue.offer(v, now * 1000);
+                    if (nextDeparture == Long.MAX_VALUE && signal != 0) nextDeparture = now + serviceMicros;
+                    nextArrival = now + 1 + (long) (-Math.log(1 - random.nextDouble()) * meanArrivalMicros);
+                } else if (nextDeparture <= nextSignal) {
+                    now = nextDeparture;
+                    Vehicle v = queue.poll(now * 1000);
+                    recorder.recordDeparture(now, v);
+                    nextDeparture = queue.isEmpty() || signal == 0 ? Long.MAX_VALUE : now + serviceMicros;
+                } else {
+                    now = nextSignal;
+                    signal = (signal + 1) % 3;
+                    recorder.recordSignal(now, signal);
+                    nextSignal = now + signalMicros;
+                    if (signal == 0) nextDeparture = Long.MAX_VALUE;
+                    else if (nextDeparture == Long.MAX_VALUE && !queue.isEmpty()) nextDeparture = now + serviceMicros;
+                }
+            }
+            return recorder.events();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package Traffic;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes a trace written by TraceRecorder, handing each event to a Visitor with its
+ * absolute time in microseconds. The file is read through read-only memory-mapped windows
+ * of up to 1 GiB, so decoding never copies the data.
+ */
+public class TraceReader {
+    static final long WINDOW_BYTES = 1L << 30;
+
+    public interface Visitor {
+        void onArrival(long micros, int typeId, boolean emergency);
+
+        void onDeparture(long micros, int typeId, boolean emergency);
+
+        void onSignal(long micros, int signalIndex);
+
+        // A new vehicle type; ids count up from 0 in definition order
+        default void onType(int typeId, String type) {
+        }
+    }
+
+    // Reads every event and returns how many there were. Decoding stops at the first invalid
+    // record: one cut off by the end of the data or naming a vehicle type never defined.
+    public static long read(Path file, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, TraceRecorder.HEADER_BYTES);
+            head.order(ByteOrder.LITTLE_ENDIAN);
+            if (head.getInt(0) != TraceRecorder.MAGIC) throw new IOException("Not a trace file: " + file);
+            // The recorder keeps the length current even if it was never closed
+            long dataLength = Math.min(head.getLong(4), channel.size() - TraceRecorder.HEADER_BYTES);
+            long end = TraceRecorder.HEADER_BYTES + Math.max(0, dataLength);
+
+            List<String> types = new ArrayList<>();
+            long micros = 0;
+            long events = 0;
+            long position = TraceRecorder.HEADER_BYTES;
+            while (position < end) {
+                // Each window stops short of its end and the next one is mapped from the first
+                // record not yet decoded, so no record is split across windows
+                long size = Math.min(WINDOW_BYTES, end - position);
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                boolean last = position + size == end;
+                int safe = last ? (int) size : (int) size - 64; // Room for the longest record
+                int consumed = -1;
+                while (buf.position() < safe) {
+                    int recordStart = buf.position();
+                    int kind;
+                    long payload, delta = 0;
+                    try {
+                        int header = buf.get() & 0xFF;
+                        kind = header & 3;
+                        payload = header >>> 2;
+                        if (kind != TraceRecorder.DEFINE_TYPE) delta = varint(buf); // Type definitions carry no time
+                        if (payload == TraceRecorder.INLINE_LIMIT) payload += varint(buf);
+                    } catch (BufferUnderflowException e) {
+                        return events; // Cut off at the end of the data
+                    }
+
+                    if (kind == TraceRecorder.DEFINE_TYPE) {
+                        if (payload > buf.remaining()) {
+                            if (last) return events;
+                            consumed = recordStart; // Name runs past the window; remap from here
+                            break;
+                        }
+                        byte[] name = new byte[(int) payload];
+                        buf.get(name);
+                        String type = new String(name, StandardCharsets.UTF_8);
+                        types.add(type);
+                        visitor.onType(types.size() - 1, type);
+                        continue;
+                    }
+                    micros += delta;
+                    if (kind != TraceRecorder.SIGNAL && payload >>> 1 >= types.size()) return events;
+                    switch (kind) {
+                        case TraceRecorder.ARRIVAL -> visitor.onArrival(micros, (int) (payload >>> 1), (payload & 1) != 0);
+                        case TraceRecorder.DEPARTURE -> visitor.onDeparture(micros, (int) (payload >>> 1), (payload & 1) != 0);
+                        default -> visitor.onSignal(micros, (int) payload);
+                    }
+                    events++;
+                }
+                position += consumed >= 0 ? consumed : buf.position();
+            }
+            return events;
+        }
+    }
+
+    // Little-endian base-128 varint at the buffer's position
+    private static long varint(MappedByteBuffer buf) {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
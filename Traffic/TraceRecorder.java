@@ -0,0 +1,187 @@
+package Traffic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams vehicle arrivals, departures and signal changes to a compact binary trace file.
+ *
+ * The file is written through memory-mapped windows, so appending an event is a few byte
+ * stores with no system call. Each event is one header byte holding the kind and a small
+ * payload, followed by the time since the previous event in microseconds as a varint; a
+ * payload that doesn't fit in the header follows as a second varint. Vehicle types are
+ * written once as a definition record and referred to by number afterwards. A typical
+ * event takes 2-4 bytes.
+ *
+ * File layout: "TRC1", a long holding the data length, then events. The length is updated
+ * after every event (a plain store into the mapped header page), so a recording that was
+ * never closed still says where its data ends and readers ignore the zero-filled rest of the
+ * last window. close() unmaps the windows and trims that padding away.
+ */
+public class TraceRecorder implements Closeable {
+    static final int MAGIC = 0x54524331; // "TRC1"
+    static final int HEADER_BYTES = 12;
+    static final long WINDOW_BYTES = 64L << 20;
+
+    // Event kinds, in the low two bits of the header byte
+    static final int ARRIVAL = 0, DEPARTURE = 1, SIGNAL = 2, DEFINE_TYPE = 3;
+    static final int INLINE_LIMIT = 63; // Payloads below this fit in the header byte
+
+    private final FileChannel channel;
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private MappedByteBuffer head; // The file header, mapped for the recorder's lifetime
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long lastMicros = 0;
+    private long events = 0;
+    private final long originNanos = System.nanoTime();
+
+    public TraceRecorder(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        mapWindow(0);
+        window.putInt(MAGIC);
+        window.putLong(0);
+        head = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        head.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Microseconds since the recorder was opened
+    public long nowMicros() {
+        return (System.nanoTime() - originNanos) / 1000;
+    }
+
+    public void recordArrival(Vehicle v) {
+        recordArrival(nowMicros(), v);
+    }
+
+    public void recordDeparture(Vehicle v) {
+        recordDeparture(nowMicros(), v);
+    }
+
+    public void recordSignal(int signalIndex) {
+        recordSignal(nowMicros(), signalIndex);
+    }
+
+    public synchronized void recordArrival(long micros, Vehicle v) {
+        write(ARRIVAL, micros, typeId(v.getType()) << 1 | (v.isEmergency() ? 1 : 0));
+    }
+
+    public synchronized void recordDeparture(long micros, Vehicle v) {
+        write(DEPARTURE, micros, typeId(v.getType()) << 1 | (v.isEmergency() ? 1 : 0));
+    }
+
+    public synchronized void recordSignal(long micros, int signalIndex) {
+        write(SIGNAL, micros, signalIndex);
+    }
+
+    public synchronized long events() {
+        return events;
+    }
+
+    // Bytes written so far, header included
+    public synchronized long length() {
+        return windowStart + window.position();
+    }
+
+    private int typeId(String type) {
+        Integer id = typeIds.get(type);
+        if (id != null) return id;
+        byte[] name = type.getBytes(StandardCharsets.UTF_8);
+        header(DEFINE_TYPE, name.length);
+        ensure(name.length);
+        window.put(name);
+        typeIds.put(type, typeIds.size());
+        return typeIds.size() - 1;
+    }
+
+    private void write(int kind, long micros, long payload) {
+        long delta = Math.max(0, micros - lastMicros); // Concurrent callers may race the clock
+        lastMicros = Math.max(lastMicros, micros);
+        ensure(1 + 10 + 10);
+        window.put((byte) (kind | (int) Math.min(payload, INLINE_LIMIT) << 2));
+        putVarint(delta);
+        if (payload >= INLINE_LIMIT) putVarint(payload - INLINE_LIMIT);
+        events++;
+        head.putLong(4, length() - HEADER_BYTES); // Publish the event (and any type defined for it)
+    }
+
+    // Header byte for a record without a time delta
+    private void header(int kind, long payload) {
+        ensure(1 + 10);
+        window.put((byte) (kind | (int) Math.min(payload, INLINE_LIMIT) << 2));
+        if (payload >= INLINE_LIMIT) putVarint(payload - INLINE_LIMIT);
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            window.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        window.put((byte) value);
+    }
+
+    // Moves to a fresh window when fewer than `bytes` remain in the current one
+    private void ensure(int bytes) {
+        if (window.remaining() < bytes) {
+            try {
+                mapWindow(windowStart + window.position());
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot extend trace file", e);
+            }
+        }
+    }
+
+    private void mapWindow(long start) throws IOException {
+        MappedByteBuffer previous = window;
+        window = channel.map(FileChannel.MapMode.READ_WRITE, start, WINDOW_BYTES);
+        if (previous != null) unmap(previous);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = start;
+    }
+
+    // Flushes the trace, unmaps it and trims the file to the data length
+    @Override
+    public synchronized void close() throws IOException {
+        if (window == null) return;
+        long end = length();
+        window.force();
+        head.putLong(4, end - HEADER_BYTES);
+        head.force();
+        boolean unmapped = unmap(window) & unmap(head);
+        window = null;
+        head = null;
+        try {
+            // Windows refuses to truncate a file that is still mapped; if the mappings could not
+            // be released the padding stays, and the header length still marks the end
+            if (unmapped || !System.getProperty("os.name").startsWith("Windows")) channel.truncate(end);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Releases a mapping now instead of whenever the buffer is garbage collected, through the
+    // JDK's unsupported Unsafe.invokeCleaner. The buffer must not be touched afterwards.
+    // Returns false, leaving the mapping to the garbage collector, if that is unavailable.
+    private static boolean unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -1,34 +1,127 @@
 package Traffic;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Simulates a traffic light system cycling through Red, Green, and Yellow signals.
- * Runs in a separate thread, changing the signal every 5 seconds.
+ * Runs in a separate thread. In fixed mode the signal changes every 5 seconds. In adaptive
+ * mode the green lasts as long as the VehicleManager queue needs (see SignalTiming) and an
+ * emergency vehicle turns a red light green straight away.
  */
 public class TrafficLightController implements Runnable {
+    private static final long PHASE_MILLIS = 5000;       // Fixed-cycle phase length
+    private static final long PASS_MILLIS = 2000;        // Time VehicleManager takes per vehicle
+    private static final long MAX_GREEN_MILLIS = 30_000;
+
     private final String[] signals = {"Red", "Green", "Yellow"}; // Signal list
     private int currentSignalIndex = 0; // Tracks current signal
     private volatile boolean running = true; // Controls the loop
 
+    private final VehicleManager vehicleManager; // Queue the adaptive mode reads, or null
+    private volatile boolean adaptive;
+    private volatile boolean preemptRequested;
+    private volatile Thread signalThread;
+    private volatile TraceRecorder recorder; // Records signal changes, or null
+    private double arrivalRate = 0; // Smoothed vehicles per second
+    private long lastArrivals = 0;
+    private long lastSampleNanos = System.nanoTime();
+
+    // Fixed-cycle controller
+    public TrafficLightController() {
+        this(null);
+    }
+
+    // Adaptive controller driven by the given manager's queue
+    public TrafficLightController(VehicleManager vehicleManager) {
+        this.vehicleManager = vehicleManager;
+        this.adaptive = vehicleManager != null;
+    }
+
     // Returns the current signal
     public String getCurrentSignal() {
         return signals[currentSignalIndex];
     }
 
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    // Switches between fixed and adaptive timing; adaptive needs a VehicleManager
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive && vehicleManager != null;
+    }
+
+    public void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    // Sets the signal directly, for trace replay while run() is not cycling
+    public void applySignal(int signalIndex) {
+        currentSignalIndex = signalIndex;
+    }
+
+    // An emergency vehicle is waiting: end a red light now
+    public void preempt() {
+        if (!adaptive) return;
+        preemptRequested = true;
+        Thread t = signalThread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
     // Stops the signal cycle
     public void stop() {
         running = false;
+        Thread t = signalThread;
+        if (t != null) LockSupport.unpark(t);
     }
 
-    // Cycles through signals every 5 seconds while running
+    // Cycles through signals while running, every 5 seconds or as the queue needs
     public void run() {
+        signalThread = Thread.currentThread();
         while (running) {
-            try {
-                currentSignalIndex = (currentSignalIndex + 1) % signals.length;
-                System.out.println("Signal: " + getCurrentSignal());
-                Thread.sleep(5000);
-            } catch (InterruptedException e) {
+            currentSignalIndex = (currentSignalIndex + 1) % signals.length;
+            if (getCurrentSignal().equals("Green")) preemptRequested = false;
+            TraceRecorder r = recorder;
+            if (r != null) r.recordSignal(currentSignalIndex);
+            long millis = phaseMillis();
+            System.out.println("Signal: " + getCurrentSignal() + (adaptive ? " for " + millis + " ms" : ""));
+            if (!hold(millis)) {
                 Thread.currentThread().interrupt();
+                return;
             }
         }
     }
+
+    // How long the current signal lasts
+    private long phaseMillis() {
+        if (!adaptive) return PHASE_MILLIS;
+        sampleArrivalRate();
+        if (!getCurrentSignal().equals("Green")) return PHASE_MILLIS;
+        return SignalTiming.greenMillis(vehicleManager.getQueueLength(), arrivalRate, PASS_MILLIS,
+            SignalTiming.MIN_GREEN_MILLIS, MAX_GREEN_MILLIS);
+    }
+
+    // Arrivals per second since the last signal change, smoothed over recent changes
+    private void sampleArrivalRate() {
+        long now = System.nanoTime();
+        long arrivals = vehicleManager.getArrivals();
+        double seconds = (now - lastSampleNanos) / 1e9;
+        if (seconds > 0) arrivalRate = 0.5 * arrivalRate + 0.5 * (arrivals - lastArrivals) / seconds;
+        lastArrivals = arrivals;
+        lastSampleNanos = now;
+    }
+
+    // Waits out the signal; a red ends early on preemption. False if interrupted.
+    private boolean hold(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (running) {
+            if (preemptRequested && getCurrentSignal().equals("Red")) return true;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return true;
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) return false;
+        }
+        return true;
+    }
 }
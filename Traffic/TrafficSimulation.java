@@ -0,0 +1,412 @@
+package Traffic;
+
+/**
+ * Headless discrete-event simulation of a city grid of signalised intersections.
+ * Instead of sleeping in real time like VehicleManager and TrafficLightController, the
+ * engine keeps a simulated clock and jumps straight to the next pending event, so an hour
+ * of traffic over thousands of intersections runs in seconds.
+ *
+ * Every intersection has four approach queues (from N, E, S, W) and a two-phase signal
+ * (N-S green, yellow, E-W green, yellow). Vehicles enter at the edge of the grid, queue at
+ * each signal, cross at a saturation headway while their approach is green, then drive to
+ * the next intersection. Each intersection owns seeded random streams, one for edge arrivals
+ * and one for routing, so a run is fully deterministic for a given seed and the arrival
+ * stream stays the same whatever the signals do.
+ *
+ * Signals run a fixed cycle by default. In adaptive mode each green is sized by
+ * SignalTiming from the queues and the smoothed arrival rates of its approaches, and an
+ * emergency vehicle waiting at a red cuts the crossing green short after its minimum.
+ *
+ * Vehicles are not objects: a vehicle is one long packing its entry time, remaining hops
+ * and type, carried through the event queue and the approach ring buffers.
+ */
+public class TrafficSimulation {
+    // Event kinds; at equal times signal changes run before departures, then arrivals
+    static final int SIGNAL = 0, DEPART = 1, ARRIVAL = 2, SPAWN = 3;
+
+    // Approaches, named by the side a vehicle comes from
+    static final int NORTH = 0, EAST = 1, SOUTH = 2, WEST = 3;
+
+    // Vehicle types
+    public static final int REGULAR = 0, BUS = 1, EMERGENCY = 2;
+
+    public static final long GREEN_MILLIS = 30_000;
+    public static final long YELLOW_MILLIS = 3_000;
+    public static final long HEADWAY_MILLIS = 2_000;     // Gap between vehicles crossing on green
+    public static final long TRAVEL_MIN_MILLIS = 15_000; // Shortest drive between intersections
+    public static final long TRAVEL_JITTER_MILLIS = 10_000;
+    public static final int MIN_HOPS = 4, MAX_HOPS = 32;
+    static final double RATE_WINDOW_MILLIS = 60_000; // Time constant of the arrival-rate average
+
+    final int rows, cols;
+    final double arrivalsPerMinute; // Per edge approach
+    final long seed;
+    boolean adaptive = false;
+    double eastWestFactor = 1; // Edge demand on the E and W sides relative to N and S
+
+    // Per intersection
+    final long[] rng;         // Routing
+    final long[] arrivalRng;  // Edge arrivals
+    final byte[] phase; // 0 N-S green, 1 N-S yellow, 2 E-W green, 3 E-W yellow
+    final long[] phaseStart;
+    final long[] phaseEnd;
+    final long[] signalGeneration; // Bumped to cancel a pending SIGNAL event
+
+    // Per approach (intersection * 4 + side): ring buffers of (vehicle, enqueue time) pairs
+    final long[][] queues;
+    final int[] heads;
+    final int[] counts;
+    final long[] nextDepart;      // Earliest time the next vehicle may cross
+    final boolean[] discharging;  // A DEPART event is pending
+    final int[] emergencies;      // Emergency vehicles queued
+    final double[] arrivalRate;   // Exponentially weighted arrivals per ms (adaptive mode)
+    final long[] rateTime;
+
+    final EventQueue events = new EventQueue();
+    final SimulationStats stats = new SimulationStats();
+    long now = 0;
+
+    public TrafficSimulation(int rows, int cols, long seed, double arrivalsPerMinute) {
+        if (rows < 1 || cols < 1) throw new IllegalArgumentException("grid must be at least 1x1");
+        if ((long) rows * cols > (1 << 27)) throw new IllegalArgumentException("grid too large");
+        this.rows = rows;
+        this.cols = cols;
+        this.seed = seed;
+        this.arrivalsPerMinute = arrivalsPerMinute;
+        int n = rows * cols;
+        rng = new long[n];
+        arrivalRng = new long[n];
+        phase = new byte[n];
+        phaseStart = new long[n];
+        phaseEnd = new long[n];
+        signalGeneration = new long[n];
+        queues = new long[n * 4][];
+        heads = new int[n * 4];
+        counts = new int[n * 4];
+        nextDepart = new long[n * 4];
+        discharging = new boolean[n * 4];
+        emergencies = new int[n * 4];
+        arrivalRate = new double[n * 4];
+        rateTime = new long[n * 4];
+        for (int i = 0; i < n; i++) {
+            rng[i] = mix(seed * 0x9E3779B97F4A7C15L + i);
+            arrivalRng[i] = mix(~seed * 0x9E3779B97F4A7C15L + i);
+        }
+    }
+
+    // Shares the grid state of another simulation but keeps its own clock, events and stats.
+    // Used by ParallelTrafficSimulation, where each region owns a disjoint set of intersections.
+    TrafficSimulation(TrafficSimulation grid) {
+        rows = grid.rows;
+        cols = grid.cols;
+        seed = grid.seed;
+        arrivalsPerMinute = grid.arrivalsPerMinute;
+        adaptive = grid.adaptive;
+        eastWestFactor = grid.eastWestFactor;
+        rng = grid.rng;
+        arrivalRng = grid.arrivalRng;
+        phase = grid.phase;
+        phaseStart = grid.phaseStart;
+        phaseEnd = grid.phaseEnd;
+        signalGeneration = grid.signalGeneration;
+        queues = grid.queues;
+        heads = grid.heads;
+        counts = grid.counts;
+        nextDepart = grid.nextDepart;
+        discharging = grid.discharging;
+        emergencies = grid.emergencies;
+        arrivalRate = grid.arrivalRate;
+        rateTime = grid.rateTime;
+    }
+
+    // Sizes each green from live queue depth and arrival rate; call before start()
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    // Skews edge demand so E-W traffic arrives `factor` times as often as N-S; call before start()
+    public void setEastWestFactor(double factor) {
+        this.eastWestFactor = factor;
+    }
+
+    public int intersections() {
+        return rows * cols;
+    }
+
+    public long now() {
+        return now;
+    }
+
+    public SimulationStats stats() {
+        return stats;
+    }
+
+    // Schedules the initial signal changes and edge arrivals for every intersection
+    public void start() {
+        for (int i = 0; i < rows * cols; i++) seed(i);
+    }
+
+    // Initial events for one intersection
+    void seed(int i) {
+        // Staggered signals so the grid doesn't switch in lockstep
+        phase[i] = (byte) (nextDouble(i) < 0.5 ? 0 : 2);
+        phaseEnd[i] = (long) (nextDouble(i) * GREEN_MILLIS);
+        schedule(phaseEnd[i], i, SIGNAL, 0, 0);
+        for (int side = 0; side < 4; side++) {
+            if (neighbor(i, side) < 0) schedule(nextArrivalGap(i, side), i, SPAWN, side, 0);
+        }
+    }
+
+    // Processes every event up to and including the given simulated time
+    public long run(long untilMillis) {
+        long processed = runBefore(untilMillis + 1);
+        now = Math.max(now, untilMillis);
+        return processed;
+    }
+
+    // Processes every event strictly before the given simulated time
+    long runBefore(long endMillis) {
+        long processed = 0;
+        while (events.peekTime() < endMillis) {
+            events.poll();
+            dispatch(events.time(), events.target(), events.data());
+            processed++;
+        }
+        return processed;
+    }
+
+    void dispatch(long time, int target, long data) {
+        now = time;
+        stats.events++;
+        stats.digest += mix(time * 31 + target ^ data);
+        int i = target >>> 4;
+        int side = target & 3;
+        switch ((target >>> 2) & 3) {
+            case SIGNAL -> onSignal(i, data);
+            case DEPART -> onDepart(i, side);
+            case ARRIVAL -> onArrival(i, side, data);
+            default -> onSpawn(i, side);
+        }
+    }
+
+    void schedule(long time, int i, int kind, int side, long data) {
+        events.add(time, i << 4 | kind << 2 | side, data);
+    }
+
+    // A vehicle leaves intersection i for neighbor n; overridden when n is simulated elsewhere
+    void sendArrival(long time, int n, int side, long vehicle) {
+        schedule(time, n, ARRIVAL, side, vehicle);
+    }
+
+    void onSignal(int i, long generation) {
+        if (generation != signalGeneration[i]) return; // Cancelled by a preemption
+        int p = (phase[i] + 1) & 3;
+        phase[i] = (byte) p;
+        phaseStart[i] = now;
+        phaseEnd[i] = now + phaseMillis(i, p);
+        schedule(phaseEnd[i], i, SIGNAL, 0, generation);
+        if (p == 0) {
+            startDischarge(i, NORTH);
+            startDischarge(i, SOUTH);
+        } else if (p == 2) {
+            startDischarge(i, EAST);
+            startDischarge(i, WEST);
+        }
+    }
+
+    // How long phase p lasts at intersection i
+    long phaseMillis(int i, int p) {
+        if ((p & 1) == 1) return YELLOW_MILLIS;
+        return adaptive ? adaptiveGreenMillis(i, p) : GREEN_MILLIS;
+    }
+
+    // Green sized to clear the busier of the two approaches it serves
+    long adaptiveGreenMillis(int i, int p) {
+        int a = p == 0 ? NORTH : EAST;
+        int q1 = i * 4 + a, q2 = i * 4 + a + 2;
+        int c1 = i * 4 + (a ^ 1), c2 = i * 4 + ((a + 2) ^ 1);
+        if (emergencies[c1] > 0 || emergencies[c2] > 0) return SignalTiming.MIN_GREEN_MILLIS;
+        int queued = Math.max(counts[q1], counts[q2]);
+        double perSecond = 1000 * Math.max(currentRate(q1), currentRate(q2));
+        return SignalTiming.greenMillis(queued, perSecond, HEADWAY_MILLIS,
+            SignalTiming.MIN_GREEN_MILLIS, SignalTiming.MAX_GREEN_MILLIS);
+    }
+
+    // Arrivals per ms on an approach, decayed to the current time
+    double currentRate(int q) {
+        return arrivalRate[q] * Math.exp((rateTime[q] - now) / RATE_WINDOW_MILLIS);
+    }
+
+    // An emergency vehicle is waiting at a red: end the crossing green once its minimum is served
+    void preempt(int i, int side) {
+        int p = phase[i];
+        if ((p & 1) == 1) return; // Already in yellow, the next change serves whichever side waits
+        long end = Math.max(now, phaseStart[i] + SignalTiming.MIN_GREEN_MILLIS);
+        if (end >= phaseEnd[i]) return;
+        phaseEnd[i] = end;
+        schedule(end, i, SIGNAL, 0, ++signalGeneration[i]);
+        stats.preemptions++;
+    }
+
+    void onSpawn(int i, int side) {
+        double u = nextArrivalDouble(i);
+        int type = u < 0.01 ? EMERGENCY : u < 0.06 ? BUS : REGULAR;
+        int hops = MIN_HOPS + (int) (nextArrivalDouble(i) * (MAX_HOPS - MIN_HOPS + 1));
+        stats.spawned++;
+        onArrival(i, side, vehicle(now, hops, type));
+        schedule(now + nextArrivalGap(i, side), i, SPAWN, side, 0);
+    }
+
+    void onArrival(int i, int side, long vehicle) {
+        int q = i * 4 + side;
+        push(q, vehicle, now);
+        if (typeOf(vehicle) == EMERGENCY) emergencies[q]++;
+        if (adaptive) {
+            arrivalRate[q] = currentRate(q) + 1 / RATE_WINDOW_MILLIS;
+            rateTime[q] = now;
+            if (typeOf(vehicle) == EMERGENCY && !isGreen(i, side)) preempt(i, side);
+        }
+        if (!discharging[q] && isGreen(i, side)) {
+            discharging[q] = true;
+            schedule(Math.max(now, nextDepart[q]), i, DEPART, side, 0);
+        }
+    }
+
+    void onDepart(int i, int side) {
+        int q = i * 4 + side;
+        if (counts[q] == 0 || !isGreen(i, side)) {
+            discharging[q] = false;
+            return;
+        }
+        long[] ring = queues[q];
+        int h = heads[q];
+        long vehicle = ring[h];
+        long wait = now - ring[h + 1];
+        heads[q] = (h + 2) & (ring.length - 1);
+        counts[q]--;
+
+        stats.crossings++;
+        stats.totalWaitMillis += wait;
+        if (wait > stats.maxWaitMillis) stats.maxWaitMillis = wait;
+        if (typeOf(vehicle) == EMERGENCY) {
+            emergencies[q]--;
+            stats.emergencyCrossings++;
+            stats.emergencyWaitMillis += wait;
+        }
+        route(i, side, vehicle);
+
+        nextDepart[q] = now + HEADWAY_MILLIS;
+        if (counts[q] > 0) schedule(nextDepart[q], i, DEPART, side, 0);
+        else discharging[q] = false;
+    }
+
+    // Sends a vehicle that crossed intersection i on to its next intersection, or out
+    void route(int i, int side, long vehicle) {
+        int hops = hopsOf(vehicle);
+        if (hops == 0) {
+            exit(vehicle);
+            return;
+        }
+        double u = nextDouble(i);
+        int out = u < 0.7 ? (side + 2) & 3 : u < 0.85 ? (side + 1) & 3 : (side + 3) & 3;
+        int n = neighbor(i, out);
+        if (n < 0) {
+            exit(vehicle);
+            return;
+        }
+        long travel = TRAVEL_MIN_MILLIS + (long) (nextDouble(i) * TRAVEL_JITTER_MILLIS);
+        sendArrival(now + travel, n, (out + 2) & 3, vehicle - (1L << 8));
+    }
+
+    void exit(long vehicle) {
+        stats.exited++;
+        stats.totalTripMillis += now - entryOf(vehicle);
+    }
+
+    boolean isGreen(int i, int side) {
+        int p = phase[i];
+        return p == 0 ? (side & 1) == 0 : p == 2 && (side & 1) == 1;
+    }
+
+    void startDischarge(int i, int side) {
+        int q = i * 4 + side;
+        if (counts[q] > 0 && !discharging[q]) {
+            discharging[q] = true;
+            schedule(Math.max(now, nextDepart[q]), i, DEPART, side, 0);
+        }
+    }
+
+    void push(int q, long vehicle, long time) {
+        long[] ring = queues[q];
+        if (ring == null) ring = queues[q] = new long[16];
+        else if (counts[q] * 2 == ring.length) ring = growQueue(q);
+        int tail = (heads[q] + counts[q] * 2) & (ring.length - 1);
+        ring[tail] = vehicle;
+        ring[tail + 1] = time;
+        counts[q]++;
+    }
+
+    private long[] growQueue(int q) {
+        long[] old = queues[q];
+        long[] ring = new long[old.length * 2];
+        int h = heads[q];
+        for (int k = 0; k < counts[q] * 2; k++) ring[k] = old[(h + k) & (old.length - 1)];
+        heads[q] = 0;
+        return queues[q] = ring;
+    }
+
+    // Vehicles waiting at the signal on one approach
+    public int queueLength(int i, int side) {
+        return counts[i * 4 + side];
+    }
+
+    // Neighbouring intersection on the given side, or -1 at the edge of the grid
+    int neighbor(int i, int side) {
+        int r = i / cols, c = i % cols;
+        return switch (side) {
+            case NORTH -> r > 0 ? i - cols : -1;
+            case EAST -> c < cols - 1 ? i + 1 : -1;
+            case SOUTH -> r < rows - 1 ? i + cols : -1;
+            default -> c > 0 ? i - 1 : -1;
+        };
+    }
+
+    // Exponential gap between edge arrivals
+    long nextArrivalGap(int i, int side) {
+        double perMinute = (side & 1) == 1 ? arrivalsPerMinute * eastWestFactor : arrivalsPerMinute;
+        return 1 + (long) (-Math.log(1 - nextArrivalDouble(i)) * 60_000 / perMinute);
+    }
+
+    static long vehicle(long entryMillis, int hops, int type) {
+        return entryMillis << 16 | (long) hops << 8 | type;
+    }
+
+    static long entryOf(long vehicle) {
+        return vehicle >>> 16;
+    }
+
+    static int hopsOf(long vehicle) {
+        return (int) (vehicle >>> 8) & 0xFF;
+    }
+
+    static int typeOf(long vehicle) {
+        return (int) vehicle & 0xFF;
+    }
+
+    // SplitMix64 streams per intersection
+    double nextDouble(int i) {
+        long z = rng[i] += 0x9E3779B97F4A7C15L;
+        return (mix(z) >>> 11) * 0x1.0p-53;
+    }
+
+    double nextArrivalDouble(int i) {
+        long z = arrivalRng[i] += 0x9E3779B97F4A7C15L;
+        return (mix(z) >>> 11) * 0x1.0p-53;
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
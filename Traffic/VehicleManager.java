@@ -1,33 +1,79 @@
 package Traffic;
 
-import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class VehicleManager implements Runnable {
-    private final PriorityBlockingQueue<Vehicle> vehicleQueue = new PriorityBlockingQueue<>();
+    private final VehicleScheduler vehicleQueue = new VehicleScheduler();
+    private final AtomicLong arrivals = new AtomicLong();
+    private volatile TrafficLightController signalController; // Preempted for emergencies
+    private volatile TraceRecorder recorder; // Records arrivals and departures, or null
     private volatile boolean running = true;
 
     public void addVehicle(Vehicle v) {
+        TraceRecorder r = recorder;
+        if (r != null) r.recordArrival(v);
         vehicleQueue.offer(v);
+        arrivals.incrementAndGet();
+        TrafficLightController controller = signalController;
+        if (v.isEmergency() && controller != null) controller.preempt();
+    }
+
+    // Adds a vehicle at a given time on the scheduler's clock, for trace replay
+    public void addVehicle(Vehicle v, long atNanos) {
+        vehicleQueue.offer(v, atNanos);
+        arrivals.incrementAndGet();
+    }
+
+    // Releases the next vehicle without the passing delay, for trace replay.
+    // Only valid while run() is not consuming the queue.
+    public Vehicle releaseNext(long atNanos) {
+        return vehicleQueue.poll(atNanos);
+    }
+
+    public void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public void setSignalController(TrafficLightController controller) {
+        this.signalController = controller;
+    }
+
+    public int getQueueLength() {
+        return vehicleQueue.size();
+    }
+
+    // Vehicles added since start
+    public long getArrivals() {
+        return arrivals.get();
     }
 
     public void stop() {
         running = false;
+        vehicleQueue.wakeUp();
     }
 
     public void run() {
         while (running) {
             try {
                 Vehicle v = vehicleQueue.take();
+                if (v == null) continue; // Woken by stop()
+                TraceRecorder r = recorder;
+                if (r != null) r.recordDeparture(v);
                 System.out.println("Vehicle passed: " + v);
                 Thread.sleep(2000); // Simulate vehicle passing
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+                return;
             }
         }
     }
 
+    // Lock-free aggregate view of the queue, filled into a reusable snapshot
+    public void snapshot(QueueSnapshot into) {
+        vehicleQueue.snapshot(into);
+    }
+
     public String[] getCurrentQueue() {
-        return vehicleQueue.stream().map(Vehicle::toString).toArray(String[]::new);
+        return vehicleQueue.toList().stream().map(Vehicle::toString).toArray(String[]::new);
     }
 }
@@ -0,0 +1,208 @@
+package Traffic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-level FIFO scheduler feeding one signal consumer from many vehicle producers.
+ * Vehicles go into one of three lanes (emergency, bus, regular), each a lock-free
+ * multi-producer/single-consumer linked queue: enqueue is one atomic swap of the tail and
+ * dequeue one pointer step at the head, so both are O(1) and vehicles of equal priority
+ * always leave in arrival order.
+ *
+ * Emergency vehicles always go first. Between the other two lanes the head that has waited
+ * longest wins, with buses credited BUS_CREDIT_NANOS of extra waiting time. A regular car
+ * therefore only waits behind buses that arrived within BUS_CREDIT_NANOS after it (or before
+ * it); later buses never overtake it. This bounds how many buses can pass a car, not how long
+ * it waits: if buses arrive faster than the signal releases them, that backlog still grows.
+ *
+ * The consumer parks when every lane is empty and producers unpark it. QueueStats keeps
+ * aggregate counts up to date on every offer and poll for lock-free snapshots.
+ */
+public class VehicleScheduler {
+    public static final int EMERGENCY = 0, BUS = 1, REGULAR = 2;
+    static final String[] LANE_NAMES = {"Emergency", "Bus", "Regular"};
+    public static final long BUS_CREDIT_NANOS = 10_000_000_000L; // Aging limit for regular cars
+
+    private final Lane[] lanes = {new Lane(), new Lane(), new Lane()};
+    private final QueueStats stats = new QueueStats();
+    private volatile Thread waiter; // Consumer parked in take()
+
+    // Lane a vehicle is scheduled in
+    public static int laneOf(Vehicle v) {
+        if (v.isEmergency()) return EMERGENCY;
+        return v.getType().equalsIgnoreCase("Bus") ? BUS : REGULAR;
+    }
+
+    public void offer(Vehicle v) {
+        offer(v, System.nanoTime());
+    }
+
+    // Enqueues with an explicit timestamp, for simulated clocks
+    public void offer(Vehicle v, long nowNanos) {
+        int slot = stats.slotOf(v.getType());
+        stats.onOffer(slot);
+        lanes[laneOf(v)].add(new Node(v, nowNanos, slot));
+        stats.sample(nowNanos, this);
+        Thread w = waiter;
+        if (w != null) LockSupport.unpark(w);
+    }
+
+    public Vehicle poll() {
+        return poll(System.nanoTime());
+    }
+
+    // Consumer only: next vehicle to release, or null when all lanes are empty
+    public Vehicle poll(long nowNanos) {
+        int lane = nextLane(lanes[EMERGENCY].peek(), lanes[BUS].peek(), lanes[REGULAR].peek());
+        if (lane < 0) return null;
+        Node node = lanes[lane].remove();
+        stats.onPoll(node.typeSlot);
+        stats.sample(nowNanos, this);
+        return node.vehicle;
+    }
+
+    // Lane whose head goes next, or -1 if all are empty
+    private static int nextLane(Node emergency, Node bus, Node regular) {
+        if (emergency != null) return EMERGENCY;
+        if (bus == null && regular == null) return -1;
+        if (regular == null) return BUS;
+        if (bus == null) return REGULAR;
+        // Aging: a regular car that has waited BUS_CREDIT_NANOS longer than the bus goes first
+        return regular.enqueuedNanos + BUS_CREDIT_NANOS < bus.enqueuedNanos ? REGULAR : BUS;
+    }
+
+    // Consumer only: parks until a vehicle is available; null if woken by wakeUp() instead
+    public Vehicle take() throws InterruptedException {
+        Vehicle v = poll();
+        if (v != null) return v;
+        waiter = Thread.currentThread();
+        // Re-check after publishing the waiter so a concurrent offer can't be missed
+        v = poll();
+        if (v == null) {
+            LockSupport.park(this);
+            v = poll();
+        }
+        waiter = null;
+        if (v == null && Thread.interrupted()) throw new InterruptedException();
+        return v;
+    }
+
+    // Wakes the consumer without a vehicle, e.g. on shutdown
+    public void wakeUp() {
+        Thread w = waiter;
+        if (w != null) LockSupport.unpark(w);
+    }
+
+    public int size() {
+        return (int) (lanes[EMERGENCY].size() + lanes[BUS].size() + lanes[REGULAR].size());
+    }
+
+    public int size(int lane) {
+        return (int) lanes[lane].size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Fills a reusable snapshot: lane and type counts, the next vehicles due and the
+    // queue-length history. Reads only counters and the first few nodes of each lane.
+    public void snapshot(QueueSnapshot into) {
+        long now = System.nanoTime();
+        stats.sample(now, this);
+        into.timestampNanos = now;
+        for (int lane = 0; lane < lanes.length; lane++) into.byLane[lane] = (int) lanes[lane].size();
+        into.total = into.byLane[EMERGENCY] + into.byLane[BUS] + into.byLane[REGULAR];
+        into.enqueued = 0;
+        into.dequeued = 0;
+        for (Lane lane : lanes) {
+            into.enqueued += lane.added.get();
+            into.dequeued += lane.removed.get();
+        }
+        stats.fill(into);
+
+        // Replays the release order over the lane heads without removing anything
+        Node emergency = lanes[EMERGENCY].head.next;
+        Node bus = lanes[BUS].head.next;
+        Node regular = lanes[REGULAR].head.next;
+        int n = 0;
+        while (n < QueueSnapshot.HEAD_SAMPLE) {
+            int lane = nextLane(emergency, bus, regular);
+            if (lane < 0) break;
+            if (lane == EMERGENCY) {
+                into.head[n++] = emergency.vehicle;
+                emergency = emergency.next;
+            } else if (lane == BUS) {
+                into.head[n++] = bus.vehicle;
+                bus = bus.next;
+            } else {
+                into.head[n++] = regular.vehicle;
+                regular = regular.next;
+            }
+        }
+        for (int k = n; k < into.headCount; k++) into.head[k] = null;
+        into.headCount = n;
+    }
+
+    // Weakly consistent copy of the queued vehicles, emergency lane first
+    public List<Vehicle> toList() {
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (Lane lane : lanes) {
+            for (Node n = lane.head.next; n != null; n = n.next) vehicles.add(n.vehicle);
+        }
+        return vehicles;
+    }
+
+    static final class Node {
+        final Vehicle vehicle;
+        final long enqueuedNanos;
+        final int typeSlot; // QueueStats counter for the vehicle's type
+        volatile Node next;
+
+        Node(Vehicle vehicle, long enqueuedNanos, int typeSlot) {
+            this.vehicle = vehicle;
+            this.enqueuedNanos = enqueuedNanos;
+            this.typeSlot = typeSlot;
+        }
+    }
+
+    // Vyukov-style intrusive MPSC queue with a stub head node
+    static final class Lane {
+        final AtomicReference<Node> tail;
+        final AtomicLong added = new AtomicLong();
+        final AtomicLong removed = new AtomicLong();
+        volatile Node head; // Consumer-owned; volatile only so toList() can read it
+
+        Lane() {
+            Node stub = new Node(null, 0, 0);
+            head = stub;
+            tail = new AtomicReference<>(stub);
+        }
+
+        void add(Node node) {
+            added.incrementAndGet();
+            Node previous = tail.getAndSet(node);
+            previous.next = node; // Links the node for the consumer
+        }
+
+        // First queued node, or null if none is linked yet
+        Node peek() {
+            return head.next;
+        }
+
+        Node remove() {
+            Node next = head.next;
+            head = next; // The removed node becomes the new stub
+            removed.lazySet(removed.get() + 1);
+            return next;
+        }
+
+        long size() {
+            return Math.max(0, added.get() - removed.get());
+        }
+    }
+}